@@ -1,129 +1,255 @@
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.channels.Pipe;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.concurrent.*;   //CompletableFuture саме звідси
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAccumulator;
 
 public class ComputationSystem {
 
     private static final int TIMEOUT_SECONDS = 10; //загальний тайм-аут
     private static final int X_ARGUMENT = 5;       //аргумент для функцій
+    private static final int WORKERS = 2;          //к-сть дочірніх JVM у режимі process
 
+    //кеш обчислених f(x): функції детерміновані, тож повторне обчислення лише витрачає delayMs
+    private static final int CACHE_CAPACITY = 256;
+    private static final int CACHE_TTL_SECONDS = 600;
+
+    /** ключ кешу: функція і її аргумент */
+    record FunctionCall(String function, int x) {
+    }
+
+    //java ComputationSystem [default|virtual|process] [x ...] - на чому виконуються задачі
+    //(потоки TaskBackend або окремі процеси ProcessWorkerPool, яких чекають віртуальні потоки)
+    //і для яких x по черзі рахувати; повторний x береться з кешу
     public static void main(String[] args) throws IOException {
-        System.out.println("[Manager] System started. Calculating for x = " + X_ARGUMENT);
-        System.out.println("[Manager] Press 'q' and Enter to stop calculation manually.");
-
-        // 1) канали зв'язку (Java NIO Pipes)
-        Pipe pipe1 = Pipe.open();
-        Pipe pipe2 = Pipe.open();
-
-        // 2) визначення задач
-        //f(x) = x*2
-        ComputationTask task1 = new ComputationTask("Function_1", X_ARGUMENT, pipe1.sink(), 2000);
-        //f(x) = x*x (+імітація зависання для тесту скасування)
-        ComputationTask task2 = new ComputationTask("Function_2", X_ARGUMENT, pipe2.sink(), 7000);
-
-        // 3) асинхронний запуск через CompletableFuture
-        CompletableFuture<Void> future1 = CompletableFuture.runAsync(task1);
-        CompletableFuture<Void> future2 = CompletableFuture.runAsync(task2);
-
-        // 4) input listener/daemon thread (для скасування)
-        AtomicBoolean stopRequested = new AtomicBoolean(false);
-        Thread inputListener = new Thread(() -> {
-            @SuppressWarnings("resource")
-            Scanner scanner = new Scanner(System.in);
-            while (!Thread.currentThread().isInterrupted()) {
-                if (scanner.hasNextLine()) {
-                    String line = scanner.nextLine();
-                    if (line.trim().equalsIgnoreCase("q")) {
-                        stopRequested.set(true);
-                        break;
-                    }
+        String mode = args.length > 0 ? args[0].toLowerCase() : "default";
+        if (!mode.equals("default") && !mode.equals("virtual") && !mode.equals("process")) usage();
+        boolean processes = mode.equals("process");
+        TaskBackend backend = processes ? TaskBackend.VIRTUAL : TaskBackend.valueOf(mode.toUpperCase());
+        int[] xs = {X_ARGUMENT};
+        try {
+            if (args.length > 1) xs = Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray();
+        } catch (NumberFormatException e) {
+            usage();
+        }
+        System.out.println("[Manager] System started. Calculating for x = " + Arrays.toString(xs)
+                + (processes ? " (" + WORKERS + " worker processes)" : " (" + backend + " threads)"));
+
+        MemoCache<FunctionCall, Double> cache = new MemoCache<>(CACHE_CAPACITY, CACHE_TTL_SECONDS, TimeUnit.SECONDS);
+        InputListener input = new InputListener();
+        try (PipeCollector collector = new PipeCollector();
+             ProcessWorkerPool pool = processes ? new ProcessWorkerPool(WORKERS) : null) {
+            if (pool != null) {
+                //тайм-аут рахується вже від теплого пулу: старт JVM - разова ціна, а не частина обчислення
+                pool.ready().join();
+                LongSummaryStatistics startup = pool.startupStats();
+                System.out.printf("[Manager] Workers ready: startup avg %.0f ms, max %.0f ms%n",
+                        startup.getAverage() / 1e6, startup.getMax() / 1e6);
+            }
+            System.out.println("[Manager] Press 'q' and Enter to stop calculation manually.");
+            input.start();
+            for (int x : xs) {
+                System.out.println("\n[Manager] === x = " + x + " ===");
+                //свій координатор на кожне обчислення: його слухачі і тайм-аут стосуються лише цих задач;
+                //close() скасовує і дочікується задач, що лишились
+                try (TaskCoordinator coordinator = new TaskCoordinator(backend)) {
+                    if (!manage(coordinator, collector, pool, cache, input, x)) break;
                 }
             }
+        }
+        MemoCache.Stats stats = cache.stats();
+        System.out.printf("%n[Manager] Cache: %d hits, %d coalesced, %d computed%n",
+                stats.hits(), stats.coalesced(), stats.misses());
+    }
+
+    private static void usage() {
+        System.err.println("Usage: java ComputationSystem [default|virtual|process] [x ...]");
+        System.exit(1);
+    }
+
+    /** одне обчислення для x; false - користувач скасував, далі рахувати не треба */
+    private static boolean manage(TaskCoordinator coordinator, PipeCollector collector, ProcessWorkerPool pool,
+                                  MemoCache<FunctionCall, Double> cache, InputListener input, int x) {
+        // 1) результати: кадри з каналу приходять від збирача, щойно задача їх записала (FrameCodec);
+        //    null - задача скасована, впала, повідомила про помилку або закрила канал без значення.
+        //    computing - результати задач, запущених саме зараз (решта прийшла з кешу)
+        Map<String, CompletableFuture<Double>> results = new ConcurrentHashMap<>();
+        Map<String, CompletableFuture<Double>> computing = new ConcurrentHashMap<>();
+        Map<String, TaskCoordinator.Status> statuses = new ConcurrentHashMap<>();
+        coordinator.onComplete(outcome -> {
+            statuses.put(outcome.name(), outcome.status());
+            if (outcome.status() == TaskCoordinator.Status.CANCELLED) {
+                System.out.println("[" + outcome.name() + "] Status: CANCELLED (No result)");
+                computing.get(outcome.name()).complete(null);
+            } else if (outcome.status() == TaskCoordinator.Status.FAILED) {
+                System.out.println("[" + outcome.name() + "] Status: ERROR (Exception occurred)");
+                computing.get(outcome.name()).complete(null);
+            }
         });
-        inputListener.setDaemon(true);
-        inputListener.start();
 
-        // 5) головний цикл (manager loop)
-        long startTime = System.currentTimeMillis();
-        boolean finished = false;
+        // 2) задачі: ім'я -> тривалість обчислення; канал зв'язку (Java NIO Pipe або stdout процесу) на кожну
+        //Function_1: f(x) = x*2, Function_2: f(x) = x*x (+імітація зависання для тесту скасування)
+        Map<String, Integer> functions = new LinkedHashMap<>();
+        functions.put("Function_1", 2000);
+        functions.put("Function_2", 7000);
 
-        try {
-            while (!finished) {
-                // 1) пкревірка тайм-ауту
-                if ((System.currentTimeMillis() - startTime) > TIMEOUT_SECONDS * 1000) {
-                    System.out.println("\n[Manager] TIMEOUT EXCEEDED! Cancelling tasks...");
-                    future1.cancel(true);
-                    future2.cancel(true);
-                    break;
+        //проміжні дані з кадрів PROGRESS і VALUE: прогрес кожної задачі і добуток уже отриманих значень
+        Map<String, Integer> progress = new ConcurrentSkipListMap<>();
+        DoubleAccumulator product = new DoubleAccumulator((a, b) -> a * b, 1);
+        AtomicInteger received = new AtomicInteger();
+        for (Map.Entry<String, Integer> f : functions.entrySet()) {
+            String name = f.getKey();
+            int delayMs = f.getValue();
+            //той самий f(x) уже обчислений чи обчислюється - задача не запускається
+            CompletableFuture<Double> result = cache.get(new FunctionCall(name, x), call -> {
+                CompletableFuture<Double> computed = new CompletableFuture<>();
+                computing.put(name, computed);
+                try {
+                    start(coordinator, collector, pool, name, x, delayMs, computed, progress);
+                } catch (IOException e) {
+                    System.out.println("[" + name + "] Status: ERROR (" + e.getMessage() + ")");
+                    computed.complete(null);
                 }
+                return computed;
+            });
+            boolean cached = result.isDone();
+            results.put(name, result.thenApply(value -> {
+                if (value == null) return null;
+                System.out.println("[" + name + "] Status: OK" + (cached ? " (cached)" : "") + ". Value: " + value);
+                product.accumulate(value);
+                System.out.printf("[Manager] Partial result: %.2f (%d/%d values)%n",
+                        product.get(), received.incrementAndGet(), functions.size());
+                return value;
+            }));
+        }
+
+        // 3) запит на зупинку від input listener: 'q', що прийшов до цього обчислення, вже не діє
+        AtomicReference<CompletableFuture<Void>> stop = input.stop;
+        BlockingQueue<String> answers = input.answers;
+        stop.set(new CompletableFuture<>());
+        answers.clear();
 
-                // 2) перевірка запиту користувача на зупинку (комб q + enter)
-                if (stopRequested.get()) {
-                    System.out.print("\n[Manager] Stop requested. Confirm cancellation? (y/n): ");
-                    @SuppressWarnings("resource")
-                    Scanner confirmScanner = new Scanner(System.in);
-                    String confirm = confirmScanner.nextLine();
-                    if (confirm.equalsIgnoreCase("y")) {
-                        System.out.println("[Manager] Cancelled by user.");
-                        future1.cancel(true);
-                        future2.cancel(true);
-                        break;
-                    } else {
-                        System.out.println("[Manager] Resuming...");
-                        stopRequested.set(false);
+        // 4) менеджер чекає, що станеться раніше: усі задачі, тайм-аут чи запит на зупинку
+        CompletableFuture<Void> all = coordinator.allDone(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        boolean cancelled = false;
+        try {
+            while (true) {
+                CompletableFuture.anyOf(all, stop.get()).handle((v, e) -> null).join();
+                if (all.isDone()) {
+                    if (all.isCompletedExceptionally()) {
+                        //тайм-аут: незавершені задачі вже скасовані координатором (їхні потоки перервано)
+                        System.out.println("\n[Manager] TIMEOUT EXCEEDED! Tasks cancelled.");
                     }
+                    break;
                 }
-                // 3) чи всі задачі виконані
-                if (future1.isDone() && future2.isDone()) {
-                    finished = true;
+
+                System.out.print("\n[Manager] Stop requested. Confirm cancellation? (y/n): ");
+                String confirm = answers.take();
+                if (confirm.equalsIgnoreCase("y")) {
+                    System.out.println("[Manager] Cancelled by user.");
+                    coordinator.cancelAll();
+                    //слухачі скасованих задач викликаються одразу; чекаємо, поки всі звітують
+                    coordinator.allDone().join();
+                    cancelled = true;
+                    break;
                 }
-                Thread.sleep(100);   //для уникнення busy-wait
+                System.out.println("[Manager] Resuming...");
+                stop.set(new CompletableFuture<>());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        // 5) обробка результатів: кожен результат визначений - значенням, EOF каналу або статусом задачі
+        CompletableFuture.allOf(results.values().toArray(CompletableFuture[]::new)).join();
+        System.out.println("\n--- FINAL RESULTS ---");
+        boolean complete = true;
+        for (String name : functions.keySet()) {
+            if (results.get(name).join() != null) continue;
+            complete = false;
+            if (statuses.get(name) == TaskCoordinator.Status.OK) {
+                System.out.println("[" + name + "] Status: ERROR (Pipe empty)");
+            }
+        }
+        if (complete) {
+            double finalResult = product.get();   // бінарна операція над усіма результатами, накопичена по ходу
+            StringBuilder expr = new StringBuilder();
+            for (String name : functions.keySet()) {
+                expr.append(expr.length() == 0 ? "" : " * ").append(String.format("%.2f", results.get(name).join()));
             }
+            System.out.printf("[Manager] SUCCESS. Result: %s = %.2f%n", expr, finalResult);
+        } else {
+            System.out.println("[Manager] CALCULATION FAILED. Result is Undefined.");
+        }
+        return !cancelled;
+    }
 
-            //збір та обробка результатів
-            System.out.println("\n--- FINAL RESULTS ---");
-            Double res1 = readResultFromPipe(pipe1.source(), future1, "Function_1");
-            Double res2 = readResultFromPipe(pipe2.source(), future2, "Function_2");
+    //запускає задачу: її кадри завершують computed і оновлюють рядок прогресу
+    private static void start(TaskCoordinator coordinator, PipeCollector collector, ProcessWorkerPool pool,
+                              String name, int x, int delayMs, CompletableFuture<Double> computed,
+                              Map<String, Integer> progress) throws IOException {
+        PipeCollector.Handler handler = new PipeCollector.Handler() {
+            @Override
+            public void onValue(double value) {
+                computed.complete(value);
+            }
 
-            if (res1 != null && res2 != null) {
-                double finalResult = res1 * res2;  // бінарна операція
-                System.out.printf("[Manager] SUCCESS. Result: %.2f * %.2f = %.2f%n", res1, res2, finalResult);
-            } else {
-                System.out.println("[Manager] CALCULATION FAILED. Result is Undefined.");
+            @Override
+            public void onProgress(int percent) {
+                progress.put(name, percent);
+                StringBuilder line = new StringBuilder("[Manager] Progress:");
+                progress.forEach((n, p) -> line.append(' ').append(n).append(' ').append(p).append('%'));
+                System.out.println(line);
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+
+            @Override
+            public void onError(int code, String message) {
+                if (computed.complete(null)) {
+                    System.out.println("[" + name + "] Status: ERROR code " + code + " (" + message + ")");
+                }
+            }
+
+            @Override
+            public void onEnd() {
+                computed.complete(null);
+            }
+        };
+        if (pool != null) {
+            coordinator.submit(name, new ProcessTask(name, x, delayMs, pool, handler));
+        } else {
+            Pipe pipe = Pipe.open();
+            collector.register(pipe.source(), handler);
+            coordinator.submit(name, new ComputationTask(name, x, pipe.sink(), delayMs));
         }
     }
 
-    //допоміжний метод для читання з Pipe ---
-    private static Double readResultFromPipe(Pipe.SourceChannel source, CompletableFuture<Void> future, String name) {
-        if (future.isCancelled()) {
-            System.out.println("[" + name + "] Status: CANCELLED (No result)");
-            return null;
-        } else if (future.isCompletedExceptionally()) {
-            System.out.println("[" + name + "] Status: ERROR (Exception occurred)");
-            return null;
+    //input listener/daemon thread, один на всі обчислення: 'q' завершує stop, решта рядків - відповіді на підтвердження
+    private static final class InputListener extends Thread {
+        final AtomicReference<CompletableFuture<Void>> stop = new AtomicReference<>(new CompletableFuture<>());
+        final BlockingQueue<String> answers = new LinkedBlockingQueue<>();
+
+        InputListener() {
+            setDaemon(true);
         }
 
-        //якщо задача успішна, читаємо з Pipe
-        ByteBuffer buffer = ByteBuffer.allocate(8); //8 байт
-        try {
-            int bytesRead = source.read(buffer);
-            if (bytesRead != -1) {
-                buffer.flip(); //пкремикаємо режим буфера на читання
-                double val = buffer.getDouble();
-                System.out.println("[" + name + "] Status: OK. Value: " + val);
-                return val;
+        @Override
+        public void run() {
+            @SuppressWarnings("resource")
+            Scanner scanner = new Scanner(System.in);
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine().trim();
+                if (line.equalsIgnoreCase("q")) stop.get().complete(null);
+                else answers.add(line);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
-        System.out.println("[" + name + "] Status: ERROR (Pipe empty)");
-        return null;
     }
 
     // внутрішній клас задачі 
@@ -131,10 +257,14 @@ public class ComputationSystem {
     static class ComputationTask implements Runnable {
         private final String name;
         private final int x;
-        private final Pipe.SinkChannel sink;
+        private final WritableByteChannel sink;
         private final int delayMs;
+        private final FrameCodec.Encoder encoder = new FrameCodec.Encoder();
 
-        public ComputationTask(String name, int x, Pipe.SinkChannel sink, int delayMs) {
+        //к-сть кроків обчислення; після кожного задача надсилає кадр PROGRESS
+        private static final int PROGRESS_STEPS = 4;
+
+        public ComputationTask(String name, int x, WritableByteChannel sink, int delayMs) {
             this.name = name;
             this.x = x;
             this.sink = sink;
@@ -144,34 +274,74 @@ public class ComputationSystem {
         @Override
         public void run() {
             try {
-                System.out.println("   -> " + name + " started...");
-                
-                Thread.sleep(delayMs); //імітація обчислень
-
-                //перевірка на переривання
-                if (Thread.currentThread().isInterrupted()) return;
-
-                double result;           //обчислення
-                if (name.equals("Function_1")) {
-                    result = x * 2.0; 
-                } else {
-                    result = x * x * 1.0;
+                compute();
+            } catch (InterruptedException e) {
+                System.out.println("   -> " + name + " was INTERRUPTED.");
+                //переривання застало задачу в sleep, тож канал ще відкритий - повідомляємо менеджера кодом помилки
+                try {
+                    encoder.error(sink, FrameCodec.ERR_INTERRUPTED, "interrupted");
+                } catch (IOException ignored) {
                 }
-
-                //запис результату в Pipe
-                ByteBuffer buffer = ByteBuffer.allocate(8);
-                buffer.putDouble(result);
-                buffer.flip();
-                
-                while (buffer.hasRemaining()) {
-                    sink.write(buffer);
+            } catch (IOException e) {
+                System.out.println("   -> " + name + " IO Error: " + e.getMessage());
+            } finally {
+                //EOF для збирача: більше значень з цього каналу не буде
+                try {
+                    sink.close();
+                } catch (IOException ignored) {
                 }
-                // sink.close();
-                
-                System.out.println("   -> " + name + " finished calculation.");
+            }
+        }
+
+        /** кадри PROGRESS і завершальний VALUE; канал не закриває - ComputationWorker пише в нього наступні задачі */
+        void compute() throws InterruptedException, IOException {
+            System.out.println("   -> " + name + " started...");
+
+            for (int step = 1; step <= PROGRESS_STEPS; step++) {
+                Thread.sleep(delayMs / PROGRESS_STEPS); //імітація обчислень
+                encoder.progress(sink, 100 * step / PROGRESS_STEPS);
+            }
+
+            //перевірка на переривання
+            if (Thread.currentThread().isInterrupted()) return;
 
+            double result;           //обчислення
+            if (name.equals("Function_1")) {
+                result = x * 2.0; 
+            } else {
+                result = x * x * 1.0;
+            }
+
+            //запис результату в Pipe (кадр VALUE)
+            encoder.value(sink, result);
+
+            System.out.println("   -> " + name + " finished calculation.");
+        }
+    }
+
+    //задача в дочірній JVM (режим process): потік координатора лише чекає відповіді,
+    //а скасування вбиває процес (destroyForcibly) - зависла функція його не переживе
+    static class ProcessTask implements Runnable {
+        private final String name;
+        private final int x;
+        private final int delayMs;
+        private final ProcessWorkerPool pool;
+        private final PipeCollector.Handler handler;
+
+        public ProcessTask(String name, int x, int delayMs, ProcessWorkerPool pool, PipeCollector.Handler handler) {
+            this.name = name;
+            this.x = x;
+            this.delayMs = delayMs;
+            this.pool = pool;
+            this.handler = handler;
+        }
+
+        @Override
+        public void run() {
+            try {
+                pool.execute(name, x, delayMs, handler);
             } catch (InterruptedException e) {
-                System.out.println("   -> " + name + " was INTERRUPTED.");
+                System.out.println("   -> " + name + " was INTERRUPTED (worker process killed).");
             } catch (IOException e) {
                 System.out.println("   -> " + name + " IO Error: " + e.getMessage());
             }
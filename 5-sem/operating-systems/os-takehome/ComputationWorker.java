@@ -0,0 +1,43 @@
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * дочірній процес {@link ProcessWorkerPool}: читає запити рядками зі stdin
+ * ({@code "ім'я x delayMs"} або {@code "ping"}) і відповідає кадрами {@link FrameCodec} у stdout.
+ * на кожен запит - кадри PROGRESS і рівно один завершальний VALUE або ERROR.
+ * журнал задач іде в stderr, тож у каналі кадрів нічого стороннього не буває; EOF на stdin - вихід
+ */
+public final class ComputationWorker {
+
+    private ComputationWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        WritableByteChannel out = new FileOutputStream(FileDescriptor.out).getChannel();
+        System.setOut(System.err);   //println задач не повинен потрапити між кадрами
+        FrameCodec.Encoder encoder = new FrameCodec.Encoder();
+
+        BufferedReader requests = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        for (String line; (line = requests.readLine()) != null; ) {
+            String[] request = line.trim().split("\\s+");
+            if (request[0].equals("ping")) {
+                encoder.value(out, 0);
+                continue;
+            }
+            try {
+                new ComputationSystem.ComputationTask(request[0], Integer.parseInt(request[1]), out,
+                        Integer.parseInt(request[2])).compute();
+            } catch (InterruptedException e) {
+                //процес ніхто не перериває - батьківський процес скасовує задачу, вбиваючи його
+                encoder.error(out, FrameCodec.ERR_INTERRUPTED, "interrupted");
+            } catch (RuntimeException e) {
+                encoder.error(out, FrameCodec.ERR_COMPUTATION, String.valueOf(e));
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * N одночасних блокуючих задач (sleep + запис результату в Pipe, як ComputationTask)
+ * на кожному TaskBackend: загальний час, задач/с і пік потоків ОС.
+ * <pre>
+ *   java CoordinatorBenchmark [задач=10000] [sleepMs=100] [тайм-аут, с=120]
+ * </pre>
+ * задачі, що не вклались у тайм-аут, скасовуються (з перериванням) і рахуються окремо
+ */
+public class CoordinatorBenchmark {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int sleepMs = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int timeoutSec = args.length > 2 ? Integer.parseInt(args[2]) : 120;
+
+        System.out.printf("[Benchmark] %,d blocking tasks, %d ms each, %d cores, timeout %d s%n",
+                tasks, sleepMs, Runtime.getRuntime().availableProcessors(), timeoutSec);
+
+        //спільний канал для результатів; окремий потік його вичитує, щоб запис не зупинявся на повному буфері
+        Pipe pipe = Pipe.open();
+        Thread drain = new Thread(() -> {
+            ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+            try {
+                while (pipe.source().read(buf) >= 0) buf.clear();
+            } catch (IOException ignored) {
+            }
+        });
+        drain.setDaemon(true);
+        drain.start();
+
+        //короткий прогін, щоб обидва варіанти міряти на прогрітій JVM
+        for (TaskBackend backend : TaskBackend.values()) run(backend, pipe.sink(), Math.min(tasks, 200), 1, timeoutSec, false);
+        for (TaskBackend backend : TaskBackend.values()) run(backend, pipe.sink(), tasks, sleepMs, timeoutSec, true);
+    }
+
+    private static void run(TaskBackend backend, Pipe.SinkChannel sink, int tasks, int sleepMs, int timeoutSec, boolean report)
+            throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        LongAdder completed = new LongAdder();
+        boolean timedOut = false;
+
+        long start = System.nanoTime();
+        try (TaskCoordinator coordinator = new TaskCoordinator(backend)) {
+            coordinator.onComplete(o -> {
+                if (o.status() == TaskCoordinator.Status.OK) completed.increment();
+            });
+            for (int i = 0; i < tasks; i++) {
+                int id = i;
+                coordinator.submit("task-" + i, () -> {
+                    try {
+                        Thread.sleep(sleepMs);
+                        ByteBuffer buf = ByteBuffer.allocate(8).putDouble(id * 2.0).flip();
+                        while (buf.hasRemaining()) sink.write(buf);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+            }
+            try {
+                coordinator.allDone(timeoutSec, TimeUnit.SECONDS).join();
+            } catch (RuntimeException e) {
+                if (!(TaskCoordinator.unwrap(e) instanceof TimeoutException)) throw e;
+                timedOut = true;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (!report) return;
+
+        System.out.printf("[Benchmark] %-8s %8.2f s  %,10.0f tasks/s  peak OS threads %,6d  completed %,d/%,d%s%n",
+                backend, seconds, completed.sum() / seconds, threads.getPeakThreadCount(),
+                completed.sum(), tasks, timedOut ? " (TIMEOUT, rest cancelled)" : "");
+    }
+}
@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * протокол кадрів для каналів задач: {@code [int довжина payload][byte тип][payload]}, big-endian.
+ * <pre>
+ *   VALUE    double             - результат задачі
+ *   PARTIAL  double             - проміжне значення
+ *   PROGRESS int (0..100)       - прогрес у відсотках
+ *   ERROR    int код, UTF-8     - помилка з кодом і повідомленням
+ * </pre>
+ * кодувальник і декодувальник перевикористовують свої direct-буфери, тож кадри VALUE, PARTIAL
+ * і PROGRESS не виділяють пам'яті ні при записі, ні при розборі
+ */
+public final class FrameCodec {
+
+    /** довжина заголовка: int довжини і байт типу */
+    public static final int HEADER = 5;
+
+    /** найбільший допустимий payload; довший кадр вважається пошкодженим */
+    public static final int MAX_PAYLOAD = 1024;
+
+    /** коди помилок у кадрі ERROR */
+    public static final int ERR_INTERRUPTED = 1;
+    public static final int ERR_COMPUTATION = 2;
+
+    public enum Type {
+        VALUE(1), PARTIAL(2), PROGRESS(3), ERROR(4);
+
+        final byte tag;
+
+        Type(int tag) {
+            this.tag = (byte) tag;
+        }
+    }
+
+    /** отримувач розібраних кадрів */
+    public interface Listener {
+
+        void onValue(double value);
+
+        default void onPartial(double value) {
+        }
+
+        default void onProgress(int percent) {
+        }
+
+        default void onError(int code, String message) {
+        }
+    }
+
+    private FrameCodec() {
+    }
+
+    // -- запис кадрів у буфер (BufferOverflowException, якщо не вміщається)
+
+    public static void putValue(ByteBuffer dst, double value) {
+        dst.putInt(Double.BYTES).put(Type.VALUE.tag).putDouble(value);
+    }
+
+    public static void putPartial(ByteBuffer dst, double value) {
+        dst.putInt(Double.BYTES).put(Type.PARTIAL.tag).putDouble(value);
+    }
+
+    public static void putProgress(ByteBuffer dst, int percent) {
+        dst.putInt(Integer.BYTES).put(Type.PROGRESS.tag).putInt(percent);
+    }
+
+    /** повідомлення обрізається до MAX_PAYLOAD - 4 байтів */
+    public static void putError(ByteBuffer dst, int code, String message) {
+        byte[] text = message == null ? new byte[0] : message.getBytes(StandardCharsets.UTF_8);
+        int len = Math.min(text.length, MAX_PAYLOAD - Integer.BYTES);
+        dst.putInt(Integer.BYTES + len).put(Type.ERROR.tag).putInt(code).put(text, 0, len);
+    }
+
+    /**
+     * кодувальник для одного каналу: кадр збирається у власному direct-буфері і записується повністю.
+     * не потокобезпечний
+     */
+    public static final class Encoder {
+
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(HEADER + MAX_PAYLOAD);
+
+        public void value(WritableByteChannel ch, double value) throws IOException {
+            putValue(buf.clear(), value);
+            flush(ch);
+        }
+
+        public void partial(WritableByteChannel ch, double value) throws IOException {
+            putPartial(buf.clear(), value);
+            flush(ch);
+        }
+
+        public void progress(WritableByteChannel ch, int percent) throws IOException {
+            putProgress(buf.clear(), percent);
+            flush(ch);
+        }
+
+        public void error(WritableByteChannel ch, int code, String message) throws IOException {
+            putError(buf.clear(), code, message);
+            flush(ch);
+        }
+
+        private void flush(WritableByteChannel ch) throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+        }
+    }
+
+    /**
+     * декодувальник потоку байтів одного каналу: байти подаються частинами довільного розміру,
+     * повні кадри передаються слухачу, неповний хвіст чекає наступної частини. не потокобезпечний
+     */
+    public static final class Decoder {
+
+        private final Listener listener;
+        private ByteBuffer partial = ByteBuffer.allocateDirect(HEADER + Double.BYTES);
+
+        public Decoder(Listener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * розбирає байти між position і limit; після виклику position = limit.
+         * кадр вважається прочитаним до виклику слухача, тож якщо слухач кинув виняток,
+         * feed можна викликати знову на решті буфера
+         *
+         * @throws ProtocolException пошкоджений кадр (недопустима довжина, тип або розмір payload)
+         */
+        public void feed(ByteBuffer in) throws ProtocolException {
+            if (partial.position() > 0 && !completePartial(in)) return;
+
+            while (in.remaining() >= HEADER) {
+                int start = in.position();
+                int len = checkLength(in.getInt(start));
+                if (in.remaining() < HEADER + len) break;
+                in.position(start + HEADER + len);
+                dispatch(in, start, len);
+            }
+            ensureCapacity(in.remaining());
+            partial.put(in);
+        }
+
+        //дописує в partial початок in; true - кадр із partial розібрано і partial порожній
+        private boolean completePartial(ByteBuffer in) throws ProtocolException {
+            if (partial.position() < HEADER) {
+                moveTo(in, HEADER);
+                if (partial.position() < HEADER) return false;
+            }
+            int len = checkLength(partial.getInt(0));
+            ensureCapacity(HEADER + len);
+            moveTo(in, HEADER + len);
+            if (partial.position() < HEADER + len) return false;
+            partial.clear();
+            dispatch(partial, 0, len);
+            return true;
+        }
+
+        //переносить байти з in, доки в partial не стане limit байтів або in не скінчиться
+        private void moveTo(ByteBuffer in, int limit) {
+            int n = Math.min(limit - partial.position(), in.remaining());
+            int end = in.limit();
+            partial.put(in.limit(in.position() + n));
+            in.limit(end);
+        }
+
+        private void ensureCapacity(int bytes) {
+            if (partial.capacity() - partial.position() >= bytes) return;
+            ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(partial.position() + bytes, 2 * partial.capacity()));
+            partial.flip();
+            grown.put(partial);
+            partial = grown;
+        }
+
+        private void dispatch(ByteBuffer buf, int start, int len) throws ProtocolException {
+            byte tag = buf.get(start + 4);
+            int p = start + HEADER;
+            if (tag == Type.VALUE.tag && len == Double.BYTES) {
+                listener.onValue(buf.getDouble(p));
+            } else if (tag == Type.PARTIAL.tag && len == Double.BYTES) {
+                listener.onPartial(buf.getDouble(p));
+            } else if (tag == Type.PROGRESS.tag && len == Integer.BYTES) {
+                listener.onProgress(buf.getInt(p));
+            } else if (tag == Type.ERROR.tag && len >= Integer.BYTES) {
+                byte[] text = new byte[len - Integer.BYTES];
+                buf.get(p + Integer.BYTES, text);
+                listener.onError(buf.getInt(p), new String(text, StandardCharsets.UTF_8));
+            } else {
+                throw new ProtocolException("malformed frame: type " + tag + ", payload " + len + " bytes");
+            }
+        }
+
+        private static int checkLength(int len) throws ProtocolException {
+            if (len < 0 || len > MAX_PAYLOAD) throw new ProtocolException("malformed frame: payload length " + len);
+            return len;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+import java.io.ByteArrayOutputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrameCodecTest {
+
+    //слухач, що записує кадри рядками, щоб порівнювати послідовності подій
+    private static class Recorder implements FrameCodec.Listener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onValue(double value) {
+            events.add("VALUE " + value);
+        }
+
+        @Override
+        public void onPartial(double value) {
+            events.add("PARTIAL " + value);
+        }
+
+        @Override
+        public void onProgress(int percent) {
+            events.add("PROGRESS " + percent);
+        }
+
+        @Override
+        public void onError(int code, String message) {
+            events.add("ERROR " + code + " " + message);
+        }
+    }
+
+    private static final String LONG_MESSAGE = "помилка ".repeat(40);
+
+    //потік з кадрами всіх типів; довгий ERROR більший за початковий буфер хвоста декодувальника
+    private static byte[] stream() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WritableByteChannel ch = Channels.newChannel(out);
+        FrameCodec.Encoder encoder = new FrameCodec.Encoder();
+        encoder.progress(ch, 0);
+        encoder.partial(ch, -1.5);
+        encoder.error(ch, FrameCodec.ERR_COMPUTATION, LONG_MESSAGE);
+        encoder.progress(ch, 100);
+        encoder.error(ch, FrameCodec.ERR_INTERRUPTED, "");
+        encoder.value(ch, 42.25);
+        return out.toByteArray();
+    }
+
+    private static final List<String> EXPECTED = List.of(
+            "PROGRESS 0", "PARTIAL -1.5", "ERROR 2 " + LONG_MESSAGE, "PROGRESS 100", "ERROR 1 ", "VALUE 42.25");
+
+    private static ByteBuffer frame(int len, int tag, int payloadBytes) {
+        ByteBuffer b = ByteBuffer.allocate(FrameCodec.HEADER + payloadBytes);
+        b.putInt(len).put((byte) tag);
+        return b.position(b.capacity()).flip();
+    }
+
+    @Test
+    public void testSplitAtEveryOffset() throws Exception {
+        // потік, розрізаний на дві частини в кожній можливій точці, дає ті самі кадри, що й цілий
+        byte[] bytes = stream();
+        for (int cut = 0; cut <= bytes.length; cut++) {
+            Recorder r = new Recorder();
+            FrameCodec.Decoder decoder = new FrameCodec.Decoder(r);
+            decoder.feed(ByteBuffer.wrap(bytes, 0, cut));
+            decoder.feed(ByteBuffer.wrap(bytes, cut, bytes.length - cut));
+            assertEquals(EXPECTED, r.events, "Розріз на байті " + cut);
+        }
+    }
+
+    @Test
+    public void testByteByByteAndDirectBuffers() throws Exception {
+        // по одному байту за раз і з direct-буфера, як у PipeCollector
+        byte[] bytes = stream();
+        Recorder r = new Recorder();
+        FrameCodec.Decoder decoder = new FrameCodec.Decoder(r);
+        ByteBuffer one = ByteBuffer.allocateDirect(1);
+        for (byte b : bytes) {
+            decoder.feed(one.clear().put(b).flip());
+            assertFalse(one.hasRemaining(), "feed має спожити всі байти");
+        }
+        assertEquals(EXPECTED, r.events);
+    }
+
+    @Test
+    public void testOversizedAndNegativeLength() {
+        // довжина поза [0, MAX_PAYLOAD] - ProtocolException, і в цілому кадрі, і в заголовку, що прийшов частинами
+        for (int len : new int[] {FrameCodec.MAX_PAYLOAD + 1, Integer.MAX_VALUE, -1}) {
+            ByteBuffer whole = frame(len, FrameCodec.Type.ERROR.tag, 8);
+            assertThrows(ProtocolException.class, () -> new FrameCodec.Decoder(new Recorder()).feed(whole),
+                    "Довжина " + len);
+
+            ByteBuffer split = frame(len, FrameCodec.Type.ERROR.tag, 8);
+            FrameCodec.Decoder decoder = new FrameCodec.Decoder(new Recorder());
+            assertDoesNotThrow(() -> decoder.feed(split.slice(0, 3)));
+            assertThrows(ProtocolException.class, () -> decoder.feed(split.slice(3, split.remaining() - 3)),
+                    "Довжина " + len + " у розрізаному заголовку");
+        }
+    }
+
+    @Test
+    public void testUnknownTagAndWrongPayloadSize() {
+        // невідомий тип і відомий тип з payload не того розміру - пошкоджений кадр
+        int[][] frames = {{8, 0}, {8, 9}, {8, -1}, {4, FrameCodec.Type.VALUE.tag}, {8, FrameCodec.Type.PROGRESS.tag},
+                {2, FrameCodec.Type.ERROR.tag}};
+        for (int[] f : frames) {
+            Recorder r = new Recorder();
+            ProtocolException e = assertThrows(ProtocolException.class,
+                    () -> new FrameCodec.Decoder(r).feed(frame(f[0], f[1], f[0])), "Тип " + f[1] + ", довжина " + f[0]);
+            assertTrue(e.getMessage().contains("type " + (byte) f[1]), e.getMessage());
+            assertTrue(r.events.isEmpty(), "Пошкоджений кадр не повинен дійти до слухача");
+        }
+    }
+
+    @Test
+    public void testErrorPayloads() throws Exception {
+        // ERROR: UTF-8 повідомлення, null як порожнє, обрізання до MAX_PAYLOAD - 4 байтів
+        String tooLong = "x".repeat(FrameCodec.MAX_PAYLOAD + 100);
+        ByteBuffer buf = ByteBuffer.allocate(4 * (FrameCodec.HEADER + FrameCodec.MAX_PAYLOAD));
+        FrameCodec.putError(buf, 7, "ділення на нуль");
+        FrameCodec.putError(buf, -3, null);
+        FrameCodec.putError(buf, FrameCodec.ERR_COMPUTATION, tooLong);
+        FrameCodec.putValue(buf, 1);
+
+        Recorder r = new Recorder();
+        new FrameCodec.Decoder(r).feed(buf.flip());
+        assertEquals(List.of("ERROR 7 ділення на нуль", "ERROR -3 ",
+                "ERROR 2 " + tooLong.substring(0, FrameCodec.MAX_PAYLOAD - Integer.BYTES), "VALUE 1.0"), r.events);
+    }
+
+    @Test
+    public void testFeedContinuesAfterListenerFailure() throws Exception {
+        // кадр, на якому впав слухач, уже прочитано: повторний feed на решті буфера продовжує з наступного
+        Recorder r = new Recorder() {
+            @Override
+            public void onPartial(double value) {
+                super.onPartial(value);
+                throw new IllegalStateException("listener failed");
+            }
+        };
+        ByteBuffer in = ByteBuffer.wrap(stream());
+        FrameCodec.Decoder decoder = new FrameCodec.Decoder(r);
+        assertThrows(IllegalStateException.class, () -> decoder.feed(in));
+        decoder.feed(in);
+        assertEquals(EXPECTED, r.events);
+    }
+}
@@ -0,0 +1,174 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * обмежений потокобезпечний кеш результатів: ключ -> CompletableFuture значення.
+ * <ul>
+ *   <li>одночасні запити одного ключа отримують той самий незавершений результат, тож обчислення
+ *       запускається один раз, скільки б потоків не прийшло на холодний ключ;</li>
+ *   <li>готове значення живе ttl від моменту обчислення;</li>
+ *   <li>понад capacity ключів витісняється найдавніше використаний (LRU).</li>
+ * </ul>
+ * невдалі обчислення (виняток або null) не кешуються - наступний запит обчислює заново.
+ * кожен викликач отримує власну копію future, тож скасування чи complete() у нього не зачіпає інших
+ */
+public final class MemoCache<K, V> {
+
+    /** лічильники з моменту створення; coalesced - запити, що приєднались до вже запущеного обчислення */
+    public record Stats(long hits, long coalesced, long misses, long expired, int size) {
+    }
+
+    //expiresAt встановлюється, коли значення обчислене; доти запис не старіє
+    private static final class Entry<V> {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        volatile long expiresAt = Long.MAX_VALUE;
+    }
+
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;   //порядок доступу = порядок LRU; під entries
+    private long hits, coalesced, misses, expired;      //під entries
+
+    public MemoCache(int capacity, long ttl, TimeUnit unit) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        this.ttlNanos = unit.toNanos(ttl);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                //витіснений незавершений запис дообчислюється для своїх викликачів, але вже не кешується
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * значення з кешу або, якщо його немає чи воно застаріло, результат loader; loader викликається
+     * в потоці першого викликача, поза блокуванням кешу, і не більше одного разу на ключ одночасно
+     */
+    public CompletableFuture<V> get(K key, Function<? super K, ? extends CompletableFuture<V>> loader) {
+        Entry<V> entry;
+        boolean load = false;
+        synchronized (entries) {
+            entry = entries.get(key);
+            //незавершений запис не старіє: nanoTime() буває від'ємним, і різниця з MAX_VALUE переповнилась би
+            if (entry != null && entry.expiresAt != Long.MAX_VALUE && System.nanoTime() - entry.expiresAt > 0) {
+                entries.remove(key);
+                entry = null;
+                expired++;
+            }
+            if (entry == null) {
+                entry = new Entry<>();
+                entries.put(key, entry);
+                load = true;
+                misses++;
+            } else if (entry.future.isDone()) {
+                hits++;
+            } else {
+                coalesced++;
+            }
+        }
+        if (load) load(key, entry, loader);
+        return entry.future.copy();
+    }
+
+    /** прибирає ключ; незавершене обчислення дообчислюється для тих, хто вже чекає */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public Stats stats() {
+        synchronized (entries) {
+            return new Stats(hits, coalesced, misses, expired, entries.size());
+        }
+    }
+
+    private void load(K key, Entry<V> entry, Function<? super K, ? extends CompletableFuture<V>> loader) {
+        CompletableFuture<V> source;
+        try {
+            source = loader.apply(key);
+        } catch (RuntimeException e) {
+            source = CompletableFuture.failedFuture(e);
+        }
+        source.whenComplete((value, error) -> {
+            //запис прибирається (чи отримує термін) до того, як чекачі побачать результат:
+            //хто повторить запит після невдачі, запустить нове обчислення, а не отримає стару помилку
+            if (error != null || value == null) {
+                synchronized (entries) {
+                    entries.remove(key, entry);
+                }
+            } else {
+                entry.expiresAt = System.nanoTime() + ttlNanos;
+            }
+            if (error != null) entry.future.completeExceptionally(error);
+            else entry.future.complete(value);
+        });
+    }
+
+    /**
+     * демонстрація: java MemoCache [потоків=1000] [ключів=10] [мс на обчислення=200].
+     * усі потоки одночасно просять ключі по колу: кожен ключ має обчислитись рівно раз
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int keys = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int delayMs = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        MemoCache<Integer, Double> cache = new MemoCache<>(keys, 1, TimeUnit.SECONDS);
+        AtomicInteger loads = new AtomicInteger();
+        Function<Integer, CompletableFuture<Double>> slowSquare = k -> {
+            loads.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> k * 1.0 * k,
+                    CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+        };
+
+        //холодні ключі: thundering herd
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger wrong = new AtomicInteger();
+        long start = System.nanoTime();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < threads; t++) {
+                int key = t % keys;
+                pool.submit(() -> {
+                    go.await();
+                    if (cache.get(key, slowSquare).join() != key * 1.0 * key) wrong.incrementAndGet();
+                    return null;
+                });
+            }
+            go.countDown();
+        }
+        System.out.printf("[Cache] cold: %,d requests for %d keys -> %d computations in %.0f ms (%d wrong), %s%n",
+                threads, keys, loads.get(), (System.nanoTime() - start) / 1e6, wrong.get(), cache.stats());
+
+        //теплі ключі: значення вже готові
+        int repeats = 1_000_000;
+        start = System.nanoTime();
+        for (int i = 0; i < repeats; i++) cache.get(i % keys, slowSquare).join();
+        System.out.printf("[Cache] warm: %,d hits, %.0f ns per lookup, %d computations%n",
+                repeats, (System.nanoTime() - start) / (double) repeats, loads.get());
+
+        //LRU: новий ключ витісняє найдавніше використаний (0 - щойно використаний, тож витісняється 1)
+        cache.get(0, slowSquare).join();
+        cache.get(keys, slowSquare).join();
+        int before = loads.get();
+        cache.get(0, slowSquare).join();
+        boolean keptRecent = loads.get() == before;
+        cache.get(1, slowSquare).join();
+        boolean evictedOldest = loads.get() == before + 1;
+        System.out.printf("[Cache] LRU: after key %d, key 0 %s, key 1 %s%n", keys,
+                keptRecent ? "kept" : "EVICTED", evictedOldest ? "evicted" : "KEPT");
+
+        //TTL: через секунду все обчислюється заново
+        Thread.sleep(1100);
+        before = loads.get();
+        for (int k = 0; k < keys; k++) cache.get(k, slowSquare).join();
+        System.out.printf("[Cache] TTL: after 1.1 s, %d of %d keys recomputed, %s%n", loads.get() - before, keys, cache.stats());
+    }
+}
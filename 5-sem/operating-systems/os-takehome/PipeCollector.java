@@ -0,0 +1,222 @@
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * збирач результатів з багатьох Pipe одним потоком: кожен SourceChannel переводиться в
+ * неблокуючий режим і реєструється в спільному Selector. кадри ({@link FrameCodec}) передаються
+ * обробнику, щойно задача їх записала, навіть якщо кадр прийшов кількома частинами.
+ * EOF (задача закрила свій SinkChannel) - сигнал, що кадрів з каналу більше не буде;
+ * пошкоджений кадр закриває канал
+ */
+public final class PipeCollector implements AutoCloseable {
+
+    /** обробник кадрів одного каналу; викликається в потоці збирача, тож не повинен блокуватись */
+    public interface Handler extends FrameCodec.Listener {
+
+        /** канал закрито (записувачем, через помилку читання або разом зі збирачем) */
+        default void onEnd() {
+        }
+    }
+
+    private record Registration(Pipe.SourceChannel source, Handler handler) {
+    }
+
+    //стан каналу: обробник і декодувальник з недочитаною частиною кадру
+    private static final class State {
+        final Handler handler;
+        final FrameCodec.Decoder decoder;
+
+        State(Handler handler) {
+            this.handler = handler;
+            this.decoder = new FrameCodec.Decoder(handler);
+        }
+    }
+
+    private final Selector selector;
+    private final Queue<Registration> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    //спільний буфер читання: одне звертання до каналу забирає все, що там накопичилось
+    private final ByteBuffer in = ByteBuffer.allocateDirect(64 * 1024);
+
+    public PipeCollector() throws IOException {
+        selector = Selector.open();
+        thread = new Thread(this::loop, "pipe-collector");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * додає канал; реєстрація відбувається в потоці збирача (Selector будиться),
+     * тож канали можна додавати будь-коли
+     */
+    public void register(Pipe.SourceChannel source, Handler handler) throws IOException {
+        if (closed) throw new IllegalStateException("collector is closed");
+        source.configureBlocking(false);
+        open.incrementAndGet();
+        pending.add(new Registration(source, handler));
+        selector.wakeup();
+    }
+
+    /** к-сть каналів, з яких ще можуть прийти значення */
+    public int openChannels() {
+        return open.get();
+    }
+
+    /** зупиняє потік збирача; для незакритих каналів викликається onEnd */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loop() {
+        try {
+            while (!closed) {
+                selector.select();
+                for (Registration r; (r = pending.poll()) != null; ) {
+                    r.source().register(selector, SelectionKey.OP_READ, new State(r.handler()));
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (key.isValid()) read(key);
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            System.out.println("[Collector] selector failed: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.isValid()) end(key);
+            }
+            for (Registration r; (r = pending.poll()) != null; ) {
+                open.decrementAndGet();
+                r.handler().onEnd();
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void read(SelectionKey key) {
+        State state = (State) key.attachment();
+        Pipe.SourceChannel source = (Pipe.SourceChannel) key.channel();
+        try {
+            int n;
+            while ((n = source.read(in.clear())) > 0) {
+                in.flip();
+                while (in.hasRemaining()) {
+                    try {
+                        state.decoder.feed(in);
+                    } catch (RuntimeException e) {
+                        //помилка одного обробника не зупиняє збір; кадр уже прочитано, розбір іде далі
+                        System.out.println("[Collector] handler failed: " + e);
+                    }
+                }
+            }
+            if (n < 0) end(key);
+        } catch (ProtocolException e) {
+            System.out.println("[Collector] " + e.getMessage() + ", channel closed");
+            end(key);
+        } catch (IOException e) {
+            end(key);
+        }
+    }
+
+    private void end(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+        open.decrementAndGet();
+        try {
+            ((State) key.attachment()).handler.onEnd();
+        } catch (RuntimeException e) {
+            System.out.println("[Collector] handler failed: " + e);
+        }
+    }
+
+    /**
+     * демонстрація: java PipeCollector [каналів=2000] [значень на канал=10].
+     * кожен записувач (віртуальний потік) пише кадри VALUE і PROGRESS шматками довільного розміру,
+     * збирач в одному потоці складає їх назад
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int pipes = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int values = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        LongAdder received = new LongAdder();
+        LongAdder wrong = new LongAdder();
+        CountDownLatch ended = new CountDownLatch(pipes);
+        long start = System.nanoTime();
+
+        try (PipeCollector collector = new PipeCollector();
+             ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int p = 0; p < pipes; p++) {
+                Pipe pipe = Pipe.open();
+                int id = p;
+                collector.register(pipe.source(), new Handler() {
+                    private int next;
+
+                    @Override
+                    public void onValue(double value) {
+                        if (value != id * 1000.0 + next++) wrong.increment();
+                        received.increment();
+                    }
+
+                    @Override
+                    public void onProgress(int percent) {
+                        if (percent != 100 * next / values) wrong.increment();
+                    }
+
+                    @Override
+                    public void onEnd() {
+                        ended.countDown();
+                    }
+                });
+                writers.submit(() -> {
+                    ByteBuffer buf = ByteBuffer.allocate(values * (2 * FrameCodec.HEADER + Double.BYTES + Integer.BYTES));
+                    for (int i = 0; i < values; i++) {
+                        FrameCodec.putValue(buf, id * 1000.0 + i);
+                        FrameCodec.putProgress(buf, 100 * (i + 1) / values);
+                    }
+                    buf.flip();
+                    try (Pipe.SinkChannel sink = pipe.sink()) {
+                        //шматки по 1..11 байтів: кадри розрізаються довільно
+                        for (int i = 0; buf.hasRemaining(); i++) {
+                            ByteBuffer chunk = buf.slice().limit(Math.min(buf.remaining(), 1 + (id + i) % 11));
+                            buf.position(buf.position() + chunk.remaining());
+                            while (chunk.hasRemaining()) sink.write(chunk);
+                        }
+                    }
+                    return null;
+                });
+            }
+            ended.await();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("[Collector] %,d pipes, %,d values (%,d wrong frames) in %.2f s on one thread%n",
+                pipes, received.sum(), wrong.sum(), seconds);
+    }
+}
@@ -0,0 +1,317 @@
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * пул теплих дочірніх JVM ({@link ComputationWorker}): запит іде рядком у stdin процесу, відповідь -
+ * кадрами {@link FrameCodec} зі stdout, тими самими, що й у Pipe задач у межах одного процесу.
+ * JVM стартує один раз і обслуговує запити по черзі, тож ціна старту не платиться за кожну задачу.
+ * <p>
+ * переривання потоку, що чекає відповіді (скасування чи тайм-аут координатора), вбиває процес
+ * (destroyForcibly) - функцію, що зависла чи ігнорує переривання, зупиняє ОС. замість мертвого
+ * процесу (вбитого чи впалого) пул одразу запускає новий. процес, що помер, не відповівши на перший
+ * ping (хибний classpath чи прапорці JVM), не замінюється: ready() і execute() завершуються помилкою
+ * з його кодом виходу
+ */
+public final class ProcessWorkerPool implements AutoCloseable {
+
+    //та сама JVM і classpath, що й у батьківського процесу; SerialGC і лише C1 пришвидшують старт
+    private static final List<String> COMMAND = List.of(
+            Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+            "-XX:+UseSerialGC", "-XX:TieredStopAtLevel=1",
+            "-cp", System.getProperty("java.class.path"), "ComputationWorker");
+
+    //запит і обробник його кадрів; done завершується після завершального кадру чи смерті процесу
+    private record Call(PipeCollector.Handler handler, CompletableFuture<Void> done) {
+    }
+
+    private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+    private final Set<Worker> workers = ConcurrentHashMap.newKeySet();
+    private final List<CompletableFuture<Void>> initial = new ArrayList<>();
+    private final LongSummaryStatistics startup = new LongSummaryStatistics();   //нс; під this
+    private final ProcessBuilder.Redirect log;
+    private volatile boolean closed;
+    private volatile IOException failure;   //перший процес, що не зміг стартувати
+
+    /** запускає size процесів; ready() - коли всі вони відповіли на ping. журнал процесів - у stderr батька */
+    public ProcessWorkerPool(int size) throws IOException {
+        this(size, ProcessBuilder.Redirect.INHERIT);
+    }
+
+    /** log - куди йде stderr дочірніх процесів (їхній журнал задач) */
+    public ProcessWorkerPool(int size, ProcessBuilder.Redirect log) throws IOException {
+        this.log = log;
+        for (int i = 0; i < size; i++) initial.add(spawn());
+    }
+
+    /** завершується, коли процеси, запущені конструктором, готові приймати запити */
+    public CompletableFuture<Void> ready() {
+        return CompletableFuture.allOf(initial.toArray(CompletableFuture[]::new));
+    }
+
+    /** час від старту процесу до відповіді на ping, нс (і для процесів-замін) */
+    public synchronized LongSummaryStatistics startupStats() {
+        LongSummaryStatistics copy = new LongSummaryStatistics();
+        copy.combine(startup);
+        return copy;
+    }
+
+    /**
+     * виконує функцію у вільному процесі і передає його кадри обробнику; повертається після
+     * завершального кадру (VALUE чи ERROR), обробник до того ж отримує onEnd
+     *
+     * @throws InterruptedException потік перервано - процес уже вбито
+     * @throws IOException процес помер, не відповівши
+     */
+    public void execute(String function, int x, int delayMs, PipeCollector.Handler handler)
+            throws IOException, InterruptedException {
+        checkStarted();
+        Worker worker = idle.take();
+        if (!worker.started) {
+            //процес, що не зміг стартувати: лишається в черзі, щоб розбудити й інших очікувачів
+            idle.add(worker);
+            checkStarted();
+        }
+        try {
+            worker.send(function + " " + x + " " + delayMs, handler).done().get();
+        } catch (InterruptedException e) {
+            worker.kill();
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } catch (IOException e) {
+            worker.kill();
+            throw e;
+        }
+        //процес міг померти (і отримати заміну) між завершальним кадром і цим рядком
+        if (workers.contains(worker) && worker.process.isAlive()) idle.add(worker);
+    }
+
+    /** закриває stdin усіх процесів (вони завершуються самі); хто не встиг за секунду - вбивається */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        for (Worker w : workers) w.shutdown();
+        for (Worker w : workers) w.awaitOrKill(1, TimeUnit.SECONDS);
+    }
+
+    private void checkStarted() throws IOException {
+        IOException f = failure;
+        if (f != null) throw new IOException(f.getMessage(), f);
+    }
+
+    private synchronized CompletableFuture<Void> spawn() throws IOException {
+        if (closed) return CompletableFuture.completedFuture(null);
+        long start = System.nanoTime();
+        Worker worker = new Worker();
+        //процес реєструється, а ping стає поточним запитом до запуску читача: смерть одразу після старту
+        //бачить і те, й інше
+        workers.add(worker);
+        CompletableFuture<Void> ping;
+        try {
+            ping = worker.send("ping", value -> {
+            }).done();
+        } catch (IOException e) {
+            workers.remove(worker);
+            worker.kill();
+            throw e;
+        }
+        worker.start();
+        return ping.thenRun(() -> {
+            worker.started = true;
+            synchronized (this) {
+                startup.accept(System.nanoTime() - start);
+            }
+            idle.add(worker);
+        });
+    }
+
+    //процес помер: незавершений запит отримує помилку, на його місце стає новий процес -
+    //якщо тільки цей не помер ще до відповіді на ping (тоді новий помре так само)
+    private void died(Worker worker, Call call) {
+        workers.remove(worker);
+        idle.remove(worker);
+        IOException error = new IOException("worker " + worker.process.pid() + " exited with code "
+                + worker.process.onExit().join().exitValue() + (worker.started ? "" : " before answering ping"));
+        if (call != null) {
+            call.handler().onEnd();
+            call.done().completeExceptionally(error);
+        }
+        if (!worker.started) {
+            synchronized (this) {
+                if (failure == null) failure = error;
+            }
+            if (!closed) System.out.println("[Workers] " + error.getMessage() + ", not restarting");
+            idle.add(worker);   //будить тих, хто чекає в execute
+            return;
+        }
+        try {
+            spawn();
+        } catch (IOException e) {
+            System.out.println("[Workers] cannot start replacement: " + e.getMessage());
+        }
+    }
+
+    //дочірня JVM; її stdout читає окремий потік і передає кадри обробнику поточного запиту
+    private final class Worker implements FrameCodec.Listener {
+        final Process process;
+        private final Writer requests;
+        private volatile Call call;
+        volatile boolean started;   //відповів на перший ping
+
+        Worker() throws IOException {
+            process = new ProcessBuilder(COMMAND).redirectError(log).start();
+            requests = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+        }
+
+        void start() {
+            Thread.ofVirtual().name("worker-" + process.pid()).start(this::readLoop);
+        }
+
+        Call send(String request, PipeCollector.Handler handler) throws IOException {
+            Call c = new Call(handler, new CompletableFuture<>());
+            call = c;
+            requests.write(request + "\n");
+            requests.flush();
+            return c;
+        }
+
+        @Override
+        public void onValue(double value) {
+            Call c = current();
+            c.handler().onValue(value);
+            finish(c);
+        }
+
+        @Override
+        public void onPartial(double value) {
+            current().handler().onPartial(value);
+        }
+
+        @Override
+        public void onProgress(int percent) {
+            current().handler().onProgress(percent);
+        }
+
+        @Override
+        public void onError(int code, String message) {
+            Call c = current();
+            c.handler().onError(code, message);
+            finish(c);
+        }
+
+        private Call current() {
+            Call c = call;
+            if (c == null) throw new IllegalStateException("frame without a request");
+            return c;
+        }
+
+        private void finish(Call c) {
+            call = null;
+            c.handler().onEnd();
+            c.done().complete(null);
+        }
+
+        private void readLoop() {
+            ReadableByteChannel in = Channels.newChannel(process.getInputStream());
+            FrameCodec.Decoder decoder = new FrameCodec.Decoder(this);
+            ByteBuffer buf = ByteBuffer.allocateDirect(4096);
+            try {
+                while (in.read(buf.clear()) >= 0) {
+                    buf.flip();
+                    while (buf.hasRemaining()) decoder.feed(buf);
+                }
+            } catch (IOException | RuntimeException e) {
+                //пошкоджений кадр чи збій обробника: стан процесу невідомий, тож він іде під заміну
+                if (!closed) System.out.println("[Workers] pid " + process.pid() + ": " + e.getMessage() + ", killed");
+            } finally {
+                kill();
+                died(this, call);
+            }
+        }
+
+        //повертається, коли процес справді завершився
+        void kill() {
+            process.destroyForcibly();
+            process.onExit().join();
+        }
+
+        void shutdown() {
+            try {
+                requests.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        void awaitOrKill(long timeout, TimeUnit unit) {
+            try {
+                if (process.waitFor(timeout, unit)) return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            kill();
+        }
+    }
+
+    /**
+     * демонстрація: java ProcessWorkerPool [процесів=2] [запитів=2000].
+     * старт JVM (до відповіді на ping), затримка запит-відповідь на теплому процесі
+     * і час від скасування до смерті процесу
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int calls = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        //журнал кожної задачі тут лише заважає
+        try (ProcessWorkerPool pool = new ProcessWorkerPool(size, ProcessBuilder.Redirect.DISCARD)) {
+            pool.ready().join();
+            LongSummaryStatistics s = pool.startupStats();
+            System.out.printf("[Workers] %d JVMs started: min %.0f ms, avg %.0f ms, max %.0f ms%n",
+                    size, s.getMin() / 1e6, s.getAverage() / 1e6, s.getMax() / 1e6);
+
+            long[] rtt = new long[calls];
+            double[] sum = new double[1];
+            for (int i = 0; i < calls; i++) {
+                long start = System.nanoTime();
+                pool.execute("Function_1", i, 0, value -> sum[0] += value);
+                rtt[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(rtt);
+            System.out.printf("[Workers] %,d round trips (1 request + 5 frames): p50 %.0f us, p99 %.0f us, max %.0f us%s%n",
+                    calls, rtt[calls / 2] / 1e3, rtt[calls * 99 / 100] / 1e3, rtt[calls - 1] / 1e3,
+                    sum[0] == (double) calls * (calls - 1) ? "" : " (WRONG VALUES)");
+
+            //функція, що "зависла" на хвилину: скасування через переривання очікувача
+            Thread waiter = Thread.ofVirtual().start(() -> {
+                try {
+                    pool.execute("Function_2", 1, 60_000, value -> {
+                    });
+                } catch (InterruptedException | IOException ignored) {
+                }
+            });
+            Thread.sleep(500);
+            long start = System.nanoTime();
+            waiter.interrupt();
+            waiter.join();
+            System.out.printf("[Workers] cancel -> worker process dead in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+        }
+    }
+}
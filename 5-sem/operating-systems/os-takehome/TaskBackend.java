@@ -0,0 +1,18 @@
+/**
+ * на чому {@link TaskCoordinator} виконує задачі; довільний Executor теж можна передати в конструктор
+ */
+public enum TaskBackend {
+
+    /**
+     * те саме, що {@code CompletableFuture.runAsync}: спільний ForkJoinPool на (ядра - 1) потоків
+     * (або новий потік на задачу, якщо ядро одне). задача, що блокується в sleep чи записі в Pipe,
+     * займає робочий потік пулу, тож сотні таких задач чекають у черзі одна за одною
+     */
+    DEFAULT,
+
+    /**
+     * віртуальний потік на задачу: під час блокування потік ОС звільняється для інших задач,
+     * тож тисячі одночасних задач не вичерпують пул
+     */
+    VIRTUAL
+}
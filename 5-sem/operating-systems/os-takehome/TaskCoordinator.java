@@ -0,0 +1,181 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * координатор задач без циклу опитування: кожна задача - CompletableFuture, про її завершення
+ * слухачі дізнаються одразу з колбека, а очікування всіх задач (allOf), першої (anyOf)
+ * і тайм-аут (orTimeout) - це комбінатори, на яких менеджер просто блокується.
+ * задачі можна додавати будь-коли, зокрема вже після виклику {@link #allDone()}.
+ * <p>
+ * скасування (вручну, за тайм-аутом чи в {@link #close()}) перериває потік задачі, тож заблокована
+ * в sleep чи записі в канал задача зупиняється одразу, а не працює далі у фоні.
+ * close() також закриває власний виконавець і чекає його потоків - жодна задача не переживає координатор
+ */
+public class TaskCoordinator implements AutoCloseable {
+
+    public enum Status { OK, FAILED, CANCELLED }
+
+    /** результат задачі; error - причина для FAILED */
+    public record Outcome(String name, Status status, Throwable error) {
+    }
+
+    //future - сама задача (її скасовуємо), notified - етап після виклику слухачів (його чекаємо)
+    private record Entry(String name, CompletableFuture<Void> future, CompletableFuture<Outcome> notified) {
+    }
+
+    private final List<Entry> tasks = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Outcome>> listeners = new CopyOnWriteArrayList<>();
+    private final Executor executor;
+    private final ExecutorService owned;    //null - виконавцем володіє викликач
+
+    /** задачі виконуються так само, як у CompletableFuture.runAsync */
+    public TaskCoordinator() {
+        this(TaskBackend.DEFAULT);
+    }
+
+    public TaskCoordinator(TaskBackend backend) {
+        this.owned = backend == TaskBackend.VIRTUAL ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        this.executor = owned != null ? owned : new CompletableFuture<Void>().defaultExecutor();
+    }
+
+    /** задачі виконуються на переданому виконавці; закриває його викликач */
+    public TaskCoordinator(Executor executor) {
+        this.executor = executor;
+        this.owned = null;
+    }
+
+    /** слухач завершення кожної задачі (успіх, помилка чи скасування); викликається в потоці задачі */
+    public TaskCoordinator onComplete(Consumer<Outcome> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    /** запускає задачу асинхронно; cancel(true) на результаті перериває її потік */
+    public CompletableFuture<Void> submit(String name, Runnable task) {
+        Job job = new Job(task);
+        CompletableFuture<Outcome> notified = job.future.handle((v, e) -> publish(outcome(name, e)));
+        tasks.add(new Entry(name, job.future, notified));
+        job.future.whenComplete((v, e) -> {
+            if (job.future.isCancelled()) job.interrupt();
+        });
+        try {
+            executor.execute(job);
+        } catch (RejectedExecutionException e) {
+            job.future.completeExceptionally(e);
+        }
+        return job.future;
+    }
+
+    /**
+     * завершується, коли завершились усі задачі (разом із доданими під час очікування)
+     * і їхні слухачі вже викликані; помилки задач не передаються - вони в {@link Outcome}
+     */
+    public CompletableFuture<Void> allDone() {
+        List<Entry> snapshot = new ArrayList<>(tasks);
+        CompletableFuture<?>[] stages = snapshot.stream().map(Entry::notified).toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(stages)
+                .thenCompose(v -> tasks.size() > snapshot.size() ? allDone() : CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * те саме з тайм-аутом: якщо задачі не встигли, всі незавершені скасовуються,
+     * а результат завершується з TimeoutException
+     */
+    public CompletableFuture<Void> allDone(long timeout, TimeUnit unit) {
+        return allDone().orTimeout(timeout, unit).whenComplete((v, e) -> {
+            if (unwrap(e) instanceof TimeoutException) cancelAll();
+        });
+    }
+
+    /** результат першої завершеної задачі з поточних */
+    public CompletableFuture<Outcome> anyDone() {
+        CompletableFuture<?>[] stages = tasks.stream().map(Entry::notified).toArray(CompletableFuture[]::new);
+        return CompletableFuture.anyOf(stages).thenApply(o -> (Outcome) o);
+    }
+
+    /** скасовує всі незавершені задачі */
+    public void cancelAll() {
+        for (Entry e : tasks) e.future().cancel(true);
+    }
+
+    /** к-сть запущених задач */
+    public int size() {
+        return tasks.size();
+    }
+
+    /** скасовує незавершені задачі і, якщо виконавець власний, чекає завершення його потоків */
+    @Override
+    public void close() {
+        cancelAll();
+        if (owned != null) owned.close();
+    }
+
+    //задача разом із потоком, що її виконує: скасування перериває саме цей потік і лише поки задача працює
+    private static final class Job implements Runnable {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final Runnable task;
+        private Thread runner;
+
+        Job(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (future.isDone()) return;    //скасовано ще до старту
+                runner = Thread.currentThread();
+            }
+            try {
+                task.run();
+                future.complete(null);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    //переривання для цієї задачі не повинне дістатися наступній у тому ж потоці пулу
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        synchronized void interrupt() {
+            if (runner != null) runner.interrupt();
+        }
+    }
+
+    private Outcome publish(Outcome outcome) {
+        for (Consumer<Outcome> l : listeners) {
+            try {
+                l.accept(outcome);
+            } catch (RuntimeException e) {
+                //помилка слухача не повинна зупиняти інших і очікування allDone
+                System.out.println("[Coordinator] listener failed for " + outcome.name() + ": " + e);
+            }
+        }
+        return outcome;
+    }
+
+    private static Outcome outcome(String name, Throwable e) {
+        Throwable cause = unwrap(e);
+        if (cause == null) return new Outcome(name, Status.OK, null);
+        if (cause instanceof CancellationException) return new Outcome(name, Status.CANCELLED, null);
+        return new Outcome(name, Status.FAILED, cause);
+    }
+
+    static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
@@ -0,0 +1,74 @@
+package ua.knu.cryptology.bench;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Запуск усіх (або відфільтрованих) бенчмарків із GC-профайлером і зведена таблиця:
+ * пропускна здатність у MiB/s і кількість байтів, виділених на одну операцію.
+ * <p>
+ * Приймає звичайні аргументи JMH, наприклад:
+ * {@code java -jar target/benchmarks.jar MD4Bench -p size=1024 -t 4}
+ */
+public class BenchmarkMain {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+        printSummary(results);
+    }
+
+    static void printSummary(Collection<RunResult> results) {
+        List<RunResult> sorted = new ArrayList<>(results);
+        sorted.sort((a, b) -> a.getParams().id().compareTo(b.getParams().id()));
+
+        System.out.println();
+        System.out.printf("%-48s %10s %8s %14s %12s %14s%n",
+                "Benchmark", "size", "threads", "ops/s", "MiB/s", "B/op");
+        for (RunResult run : sorted) {
+            String size = run.getParams().getParam("size");
+            Result<?> primary = run.getPrimaryResult();
+            Result<?> alloc = run.getSecondaryResults().get(ALLOC_NORM);
+
+            double opsPerSec = primary.getScore();
+            String mbPerSec = size == null ? "-"
+                    : String.format("%.2f", opsPerSec * Long.parseLong(size) / (1 << 20));
+            String bytesPerOp = alloc == null ? "-" : String.format("%.1f", alloc.getScore());
+
+            System.out.printf("%-48s %10s %8d %14.1f %12s %14s%n",
+                    shortName(run.getParams().getBenchmark()) + otherParams(run), size == null ? "-" : size,
+                    run.getParams().getThreads(), opsPerSec, mbPerSec, bytesPerOp);
+        }
+    }
+
+    //параметри, крім size, дописуються до назви: DESModesBench.encrypt[mode=CTR]
+    private static String otherParams(RunResult run) {
+        StringBuilder sb = new StringBuilder();
+        for (String key : run.getParams().getParamsKeys()) {
+            if (key.equals("size")) continue;
+            sb.append(sb.length() == 0 ? "[" : ",").append(key).append('=').append(run.getParams().getParam(key));
+        }
+        return sb.length() == 0 ? "" : sb.append(']').toString();
+    }
+
+    private static String shortName(String benchmark) {
+        return benchmark.substring(BenchmarkMain.class.getPackageName().length() + 1);
+    }
+}
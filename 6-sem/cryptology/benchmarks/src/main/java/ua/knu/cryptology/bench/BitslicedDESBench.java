@@ -0,0 +1,66 @@
+package ua.knu.cryptology.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * табличний FastDES проти бітово-зрізаного BitslicedDES (64 блоки за прохід, сталий час):
+ * голий {@code encryptBlocks} і режими ECB/CTR на місці поверх кожного з них.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BitslicedDESBench {
+
+    private static final MethodHandle BLOCKS_ENCRYPT = Labs.BLOCKS_ENCRYPT;
+    private static final MethodHandle ENCRYPT = Labs.MODE_ENCRYPT;
+
+    @Param({"FastDES", "BitslicedDES"})
+    public String engine;
+
+    @Param({Sizes.S_1KIB, Sizes.S_64KIB, Sizes.S_1MIB})
+    public int size;
+
+    private byte[] data;
+    private long[] blocks;
+    private Object cipher;
+    private Object ecb;
+    private Object ctr;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        data = Sizes.data(size);
+        blocks = new long[size / 8];
+        for (int i = 0; i < blocks.length; i++) blocks[i] = i * 0x9E3779B97F4A7C15L;
+
+        cipher = (Object) Labs.findConstructor(engine, methodType(void.class, long.class)).invokeExact(DESBench.KEY);
+        ecb = Labs.findConstructor("DES_ECB", methodType(void.class, Labs.cls("BlockCipher"))).invoke(cipher);
+        ctr = Labs.findConstructor("DES_CTR", methodType(void.class, Labs.cls("BlockCipher"))).invoke(cipher);
+    }
+
+    //на місці: блоки по черзі шифруються далі, на пропускну здатність це не впливає
+    @Benchmark
+    public long[] blocks() throws Throwable {
+        BLOCKS_ENCRYPT.invokeExact(cipher, blocks, 0, blocks.length);
+        return blocks;
+    }
+
+    @Benchmark
+    public byte[] ecb() throws Throwable {
+        ENCRYPT.invokeExact(ecb, data, 0, size, 0L);
+        return data;
+    }
+
+    @Benchmark
+    public byte[] ctr() throws Throwable {
+        ENCRYPT.invokeExact(ctr, data, 0, size, DESOFBBench.IV);
+        return data;
+    }
+}
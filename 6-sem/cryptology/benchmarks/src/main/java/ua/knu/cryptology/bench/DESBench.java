@@ -0,0 +1,78 @@
+package ua.knu.cryptology.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * DES.encrypt (масиви бітів) проти FastDES.encrypt (SP-таблиці): шифрування повідомлення
+ * блок за блоком (ECB-подібний прохід).
+ * розгортання ключа вимірюється окремо - {@link DESKeyScheduleBench}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DESBench {
+
+    static final long KEY = 0x133457799BBCDFF1L;
+
+    private static final MethodHandle SUBKEYS = Labs.DES_SUBKEYS;
+    private static final MethodHandle ENCRYPT = Labs.DES_ENCRYPT;
+    private static final MethodHandle FAST_NEW = Labs.FAST_DES_NEW;
+    private static final MethodHandle FAST_ENCRYPT = Labs.FAST_DES_ENCRYPT;
+
+    @Param({Sizes.S_16B, Sizes.S_1KIB, Sizes.S_64KIB, Sizes.S_1MIB, Sizes.S_64MIB})
+    public int size;
+
+    private long[] blocks;
+    private int[][] subkeys;
+    private Object fast;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        byte[] data = Sizes.data(size);
+        blocks = new long[size / 8];
+        for (int i = 0; i < blocks.length; i++) {
+            long v = 0;
+            for (int j = 0; j < 8; j++) v = (v << 8) | (data[8 * i + j] & 0xFF);
+            blocks[i] = v;
+        }
+        subkeys = (int[][]) SUBKEYS.invokeExact(KEY);
+        fast = (Object) FAST_NEW.invokeExact(KEY);
+    }
+
+    @Benchmark
+    public void encrypt(Blackhole bh) throws Throwable {
+        for (long block : blocks) {
+            bh.consume((long) ENCRYPT.invokeExact(block, subkeys));
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void encryptMt(Blackhole bh) throws Throwable {
+        for (long block : blocks) {
+            bh.consume((long) ENCRYPT.invokeExact(block, subkeys));
+        }
+    }
+
+    @Benchmark
+    public void fastEncrypt(Blackhole bh) throws Throwable {
+        for (long block : blocks) {
+            bh.consume((long) FAST_ENCRYPT.invokeExact(fast, block));
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void fastEncryptMt(Blackhole bh) throws Throwable {
+        for (long block : blocks) {
+            bh.consume((long) FAST_ENCRYPT.invokeExact(fast, block));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ua.knu.cryptology.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * розгортання 64-бітного ключа в 16 підключів (ключів за секунду): бітові масиви DES.generateSubkeys,
+ * упаковані DESKeySchedule.of і звернення до LRU-кешу DESKeySchedule.cached.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DESKeyScheduleBench {
+
+    private static final MethodHandle SUBKEYS = Labs.DES_SUBKEYS;
+    private static final MethodHandle SCHEDULE_OF = Labs.KEY_SCHEDULE_OF;
+    private static final MethodHandle SCHEDULE_CACHED = Labs.KEY_SCHEDULE_CACHED;
+
+    private long key = DESBench.KEY;
+
+    @Benchmark
+    public int[][] generateSubkeys() throws Throwable {
+        return (int[][]) SUBKEYS.invokeExact(key);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int[][] generateSubkeysMt() throws Throwable {
+        return (int[][]) SUBKEYS.invokeExact(key);
+    }
+
+    @Benchmark
+    public Object packedSchedule() throws Throwable {
+        return (Object) SCHEDULE_OF.invokeExact(key);
+    }
+
+    @Benchmark
+    public Object cachedSchedule() throws Throwable {
+        return (Object) SCHEDULE_CACHED.invokeExact(key);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object cachedScheduleMt() throws Throwable {
+        return (Object) SCHEDULE_CACHED.invokeExact(key);
+    }
+}
@@ -0,0 +1,53 @@
+package ua.knu.cryptology.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * режими поверх FastDES на місці (CipherMode): OFB і шифрування CBC послідовні,
+ * CTR, ECB і розшифрування CBC від 1 MiB діляться між ядрами всередині одного виклику.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DESModesBench {
+
+    private static final MethodHandle ENCRYPT = Labs.MODE_ENCRYPT;
+    private static final MethodHandle DECRYPT = Labs.MODE_DECRYPT;
+
+    @Param({"OFB", "CTR", "ECB", "CBC"})
+    public String mode;
+
+    @Param({Sizes.S_64KIB, Sizes.S_1MIB, Sizes.S_64MIB})
+    public int size;
+
+    private byte[] data;
+    private Object cipher;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        data = Sizes.data(size);
+        MethodHandle ctor = Labs.findConstructor("DES_" + mode, methodType(void.class, long.class));
+        cipher = (Object) ctor.invokeExact(DESBench.KEY);
+    }
+
+    //на місці: дані по черзі переходять у шифротекст і назад, на пропускну здатність це не впливає
+    @Benchmark
+    public byte[] encrypt() throws Throwable {
+        ENCRYPT.invokeExact(cipher, data, 0, size, DESOFBBench.IV);
+        return data;
+    }
+
+    @Benchmark
+    public byte[] decrypt() throws Throwable {
+        DECRYPT.invokeExact(cipher, data, 0, size, DESOFBBench.IV);
+        return data;
+    }
+}
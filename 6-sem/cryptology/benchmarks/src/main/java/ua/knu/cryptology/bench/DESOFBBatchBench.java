@@ -0,0 +1,71 @@
+package ua.knu.cryptology.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * багато коротких записів (1..63 байти) з власними IV: виклик DES_OFB.encrypt(String, long)
+ * на кожен запис проти DES_OFB.processBatch на плоскому буфері. ops/s = записів за секунду.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DESOFBBatchBench {
+
+    static final int RECORDS = 100_000;
+
+    private static final MethodHandle ENCRYPT_STRING = Labs.OFB_ENCRYPT_STRING;
+    private static final MethodHandle PROCESS_BATCH = Labs.OFB_PROCESS_BATCH;
+
+    private Object cipher;
+    private String[] strings;
+    private byte[] buffer;
+    private int[] offsets;
+    private long[] ivs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        cipher = (Object) Labs.OFB_NEW.invokeExact(DESBench.KEY);
+        byte[] data = Sizes.data(64 * RECORDS);
+
+        strings = new String[RECORDS];
+        offsets = new int[RECORDS + 1];
+        ivs = new long[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            int len = 1 + (data[i] & 0x3F) % 63;
+            strings[i] = "r".repeat(len);
+            offsets[i + 1] = offsets[i] + len;
+            ivs[i] = DESOFBBench.IV + i;
+        }
+        buffer = Arrays.copyOf(data, offsets[RECORDS]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void perRecord(Blackhole bh) throws Throwable {
+        for (int i = 0; i < RECORDS; i++) {
+            bh.consume((byte[]) ENCRYPT_STRING.invokeExact(cipher, strings[i], ivs[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public byte[] batch() throws Throwable {
+        PROCESS_BATCH.invokeExact(cipher, buffer, offsets, ivs, false);
+        return buffer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public byte[] batchParallel() throws Throwable {
+        PROCESS_BATCH.invokeExact(cipher, buffer, offsets, ivs, true);
+        return buffer;
+    }
+}
@@ -0,0 +1,57 @@
+package ua.knu.cryptology.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * DES_OFB.process: шифрування повідомлення цілком, і шлях запиту з keystream, обчисленим наперед
+ * (OFBKeystreamBuffer: лише XOR по long, паралельно від 1 MiB).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DESOFBBench {
+
+    static final long IV = 0xABCDEF1234567890L;
+
+    private static final MethodHandle PROCESS = Labs.OFB_PROCESS;
+    private static final MethodHandle XOR = Labs.KEYSTREAM_XOR;
+
+    @Param({Sizes.S_16B, Sizes.S_1KIB, Sizes.S_64KIB, Sizes.S_1MIB, Sizes.S_64MIB})
+    public int size;
+
+    private byte[] data;
+    private Object cipher;
+    private Object keystream;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        data = Sizes.data(size);
+        cipher = (Object) Labs.OFB_NEW.invokeExact(DESBench.KEY);
+        keystream = (Object) Labs.OFB_KEYSTREAM_BUFFER.invokeExact(cipher, size);
+        Labs.KEYSTREAM_PREPARE.invokeExact(keystream, IV, size);
+    }
+
+    @Benchmark
+    public byte[] process() throws Throwable {
+        return (byte[]) PROCESS.invokeExact(cipher, data, IV);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] processMt() throws Throwable {
+        return (byte[]) PROCESS.invokeExact(cipher, data, IV);
+    }
+
+    //XOR на місці: дані по черзі шифруються і розшифровуються, на пропускну здатність це не впливає
+    @Benchmark
+    public byte[] precomputedXor() throws Throwable {
+        XOR.invokeExact(keystream, data, 0, size);
+        return data;
+    }
+}
@@ -0,0 +1,88 @@
+package ua.knu.cryptology.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * HMAC-MD4 для багатьох повідомлень з одним ключем: попередньо обчислені стани (K ^ ipad), (K ^ opad)
+ * проти наївної конкатенації ключа з повідомленням і двох викликів {@code MD4.hash}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HmacMD4Bench {
+
+    private static final MethodHandle HASH = Labs.MD4_HASH;
+    private static final MethodHandle COPY = Labs.HMAC_COPY;
+    private static final MethodHandle MAC = Labs.HMAC_MAC;
+
+    @Param({Sizes.S_16B, Sizes.S_1KIB, Sizes.S_64KIB})
+    public int size;
+
+    byte[] key;
+    byte[] message;
+    Object prototype;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        key = Sizes.data(20);
+        message = Sizes.data(size);
+        prototype = (Object) Labs.HMAC_NEW.invokeExact(key);
+    }
+
+    /** копія з уже розгорнутим ключем і власні буфери на кожен потік */
+    @State(Scope.Thread)
+    public static class PerThread {
+        Object mac;
+        byte[] out = new byte[16];
+
+        @Setup(Level.Trial)
+        public void setUp(HmacMD4Bench bench) throws Throwable {
+            mac = (Object) COPY.invokeExact(bench.prototype);
+        }
+    }
+
+    @Benchmark
+    public byte[] precomputed(PerThread t) throws Throwable {
+        MAC.invokeExact(t.mac, message, 0, message.length, t.out, 0);
+        return t.out;
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] precomputedMt(PerThread t) throws Throwable {
+        MAC.invokeExact(t.mac, message, 0, message.length, t.out, 0);
+        return t.out;
+    }
+
+    @Benchmark
+    public byte[] naive() throws Throwable {
+        return naiveMac(key, message);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] naiveMt() throws Throwable {
+        return naiveMac(key, message);
+    }
+
+    //HMAC "в лоб": щоразу pad ключа, конкатенація і повне хешування обох рівнів
+    private static byte[] naiveMac(byte[] key, byte[] message) throws Throwable {
+        byte[] inner = new byte[64 + message.length];
+        byte[] outer = new byte[64 + 16];
+        for (int i = 0; i < 64; i++) {
+            byte k = i < key.length ? key[i] : 0;
+            inner[i] = (byte) (k ^ 0x36);
+            outer[i] = (byte) (k ^ 0x5c);
+        }
+        System.arraycopy(message, 0, inner, 64, message.length);
+        byte[] innerDigest = (byte[]) HASH.invokeExact(inner);
+        System.arraycopy(innerDigest, 0, outer, 64, 16);
+        return (byte[]) HASH.invokeExact(outer);
+    }
+}
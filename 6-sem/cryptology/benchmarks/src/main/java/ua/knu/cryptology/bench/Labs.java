@@ -0,0 +1,163 @@
+package ua.knu.cryptology.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Доступ до класів лабораторних з іменованого пакета.
+ * <p>
+ * Лабораторні написані в пакеті за замовчуванням, який неможливо імпортувати,
+ * а JMH не дозволяє бенчмарки в пакеті за замовчуванням. Тому виклики йдуть через
+ * {@code static final} MethodHandle - JIT згортає їх у прямі виклики, тож на вимірювання
+ * це не впливає. Екземпляри класів лабораторних передаються як {@code Object}.
+ */
+final class Labs {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    // -- lab1: MD4
+
+    /** byte[] MD4.hash(byte[]) */
+    static final MethodHandle MD4_HASH = findStatic("MD4", "hash", methodType(byte[].class, byte[].class));
+
+    /** new MD4() */
+    static final MethodHandle MD4_NEW = findConstructor("MD4", methodType(void.class));
+
+    /** MD4 MD4.update(byte[], int, int) */
+    static final MethodHandle MD4_UPDATE = findVirtual("MD4", "update",
+            methodType(cls("MD4"), byte[].class, int.class, int.class));
+
+    /** byte[] MD4.digest() */
+    static final MethodHandle MD4_DIGEST = findVirtual("MD4", "digest", methodType(byte[].class));
+
+    /** new HmacMD4(byte[]) */
+    static final MethodHandle HMAC_NEW = findConstructor("HmacMD4", methodType(void.class, byte[].class));
+
+    /** HmacMD4 HmacMD4.copy() */
+    static final MethodHandle HMAC_COPY = findVirtual("HmacMD4", "copy", methodType(cls("HmacMD4")));
+
+    /** void HmacMD4.mac(byte[], int, int, byte[], int) */
+    static final MethodHandle HMAC_MAC = findVirtual("HmacMD4", "mac",
+            methodType(void.class, byte[].class, int.class, int.class, byte[].class, int.class));
+
+    // -- lab2: DES, FastDES, DES_OFB
+
+    /** int[][] DES.generateSubkeys(long) */
+    static final MethodHandle DES_SUBKEYS = findStatic("DES", "generateSubkeys", methodType(int[][].class, long.class));
+
+    /** long DES.encrypt(long, int[][]) */
+    static final MethodHandle DES_ENCRYPT = findStatic("DES", "encrypt", methodType(long.class, long.class, int[][].class));
+
+    /** DESKeySchedule DESKeySchedule.of(long) */
+    static final MethodHandle KEY_SCHEDULE_OF = findStatic("DESKeySchedule", "of",
+            methodType(cls("DESKeySchedule"), long.class));
+
+    /** DESKeySchedule DESKeySchedule.cached(long) */
+    static final MethodHandle KEY_SCHEDULE_CACHED = findStatic("DESKeySchedule", "cached",
+            methodType(cls("DESKeySchedule"), long.class));
+
+    /** new FastDES(long) */
+    static final MethodHandle FAST_DES_NEW = findConstructor("FastDES", methodType(void.class, long.class));
+
+    /** long FastDES.encrypt(long) */
+    static final MethodHandle FAST_DES_ENCRYPT = findVirtual("FastDES", "encrypt", methodType(long.class, long.class));
+
+    /** long DES.decrypt(long, int[][]) */
+    static final MethodHandle DES_DECRYPT = findStatic("DES", "decrypt", methodType(long.class, long.class, int[][].class));
+
+    /** new TripleDES(long, long, long) */
+    static final MethodHandle TDES_NEW = findConstructor("TripleDES", methodType(void.class, long.class, long.class, long.class));
+
+    /** long BlockCipher.encrypt(long) - для FastDES і TripleDES */
+    static final MethodHandle BLOCK_ENCRYPT = findVirtual("BlockCipher", "encrypt", methodType(long.class, long.class));
+
+    /** void BlockCipher.encryptBlocks(long[], int, int) - по одному блоку або групами (BitslicedDES) */
+    static final MethodHandle BLOCKS_ENCRYPT = findVirtual("BlockCipher", "encryptBlocks",
+            methodType(void.class, long[].class, int.class, int.class));
+
+    /** new DES_OFB(long) */
+    static final MethodHandle OFB_NEW = findConstructor("DES_OFB", methodType(void.class, long.class));
+
+    /** byte[] DES_OFB.process(byte[], long) */
+    static final MethodHandle OFB_PROCESS = findVirtual("DES_OFB", "process",
+            methodType(byte[].class, byte[].class, long.class));
+
+    /** byte[] DES_OFB.encrypt(String, long) */
+    static final MethodHandle OFB_ENCRYPT_STRING = findVirtual("DES_OFB", "encrypt",
+            methodType(byte[].class, String.class, long.class));
+
+    /** void DES_OFB.processBatch(byte[], int[], long[], boolean) */
+    static final MethodHandle OFB_PROCESS_BATCH = findVirtual("DES_OFB", "processBatch",
+            methodType(void.class, byte[].class, int[].class, long[].class, boolean.class));
+
+    /** OFBKeystreamBuffer DES_OFB.keystreamBuffer(int) */
+    static final MethodHandle OFB_KEYSTREAM_BUFFER = findVirtual("DES_OFB", "keystreamBuffer",
+            methodType(cls("OFBKeystreamBuffer"), int.class));
+
+    /** void OFBKeystreamBuffer.prepare(long, int) */
+    static final MethodHandle KEYSTREAM_PREPARE = findVirtual("OFBKeystreamBuffer", "prepare",
+            methodType(void.class, long.class, int.class));
+
+    /** void OFBKeystreamBuffer.xor(byte[], int, int) */
+    static final MethodHandle KEYSTREAM_XOR = findVirtual("OFBKeystreamBuffer", "xor",
+            methodType(void.class, byte[].class, int.class, int.class));
+
+    /** void CipherMode.encrypt(byte[], int, int, long) - для DES_OFB, DES_CTR, DES_ECB, DES_CBC */
+    static final MethodHandle MODE_ENCRYPT = findVirtual("CipherMode", "encrypt",
+            methodType(void.class, byte[].class, int.class, int.class, long.class));
+
+    /** void CipherMode.decrypt(byte[], int, int, long) */
+    static final MethodHandle MODE_DECRYPT = findVirtual("CipherMode", "decrypt",
+            methodType(void.class, byte[].class, int.class, int.class, long.class));
+
+    private Labs() {
+    }
+
+    static Class<?> cls(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Lab class not on classpath: " + name, e);
+        }
+    }
+
+    //статичні методи лишаються з точними типами, крім результату-класу лабораторної (-> Object)
+    static MethodHandle findStatic(String owner, String name, MethodType type) {
+        try {
+            MethodHandle mh = LOOKUP.findStatic(cls(owner), name, type);
+            if (mh.type().returnType().getPackageName().isEmpty()) {
+                mh = mh.asType(mh.type().changeReturnType(Object.class));
+            }
+            return mh;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot resolve " + owner + "." + name, e);
+        }
+    }
+
+    //конструктор -> ()Object, щоб викликати через invokeExact без знання типу
+    static MethodHandle findConstructor(String owner, MethodType type) {
+        try {
+            MethodHandle mh = LOOKUP.findConstructor(cls(owner), type);
+            return mh.asType(mh.type().changeReturnType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot resolve new " + owner, e);
+        }
+    }
+
+    //екземплярний метод -> (Object, ...), тип результату-класу лабораторної теж стає Object
+    static MethodHandle findVirtual(String owner, String name, MethodType type) {
+        try {
+            MethodHandle mh = LOOKUP.findVirtual(cls(owner), name, type);
+            MethodType erased = mh.type().changeParameterType(0, Object.class);
+            if (erased.returnType().getPackageName().isEmpty()) {
+                erased = erased.changeReturnType(Object.class);
+            }
+            return mh.asType(erased);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot resolve " + owner + "." + name, e);
+        }
+    }
+}
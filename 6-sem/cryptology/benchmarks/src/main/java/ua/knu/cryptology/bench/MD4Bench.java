@@ -0,0 +1,68 @@
+package ua.knu.cryptology.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * MD4: однопрохідний {@code MD4.hash} і інкрементальний рушій {@code update/digest}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MD4Bench {
+
+    private static final MethodHandle HASH = Labs.MD4_HASH;
+    private static final MethodHandle NEW = Labs.MD4_NEW;
+    private static final MethodHandle UPDATE = Labs.MD4_UPDATE;
+    private static final MethodHandle DIGEST = Labs.MD4_DIGEST;
+
+    @Param({Sizes.S_16B, Sizes.S_1KIB, Sizes.S_64KIB, Sizes.S_1MIB, Sizes.S_64MIB})
+    public int size;
+
+    private byte[] data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = Sizes.data(size);
+    }
+
+    /** рушій на потік - стан MD4 не можна ділити між потоками */
+    @State(Scope.Thread)
+    public static class Engine {
+        Object md;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Throwable {
+            md = (Object) NEW.invokeExact();
+        }
+    }
+
+    @Benchmark
+    public byte[] hash() throws Throwable {
+        return (byte[]) HASH.invokeExact(data);
+    }
+
+    @Benchmark
+    public byte[] streaming(Engine engine) throws Throwable {
+        Object md = (Object) UPDATE.invokeExact(engine.md, data, 0, data.length);
+        return (byte[]) DIGEST.invokeExact(md);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] hashMt() throws Throwable {
+        return (byte[]) HASH.invokeExact(data);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] streamingMt(Engine engine) throws Throwable {
+        Object md = (Object) UPDATE.invokeExact(engine.md, data, 0, data.length);
+        return (byte[]) DIGEST.invokeExact(md);
+    }
+}
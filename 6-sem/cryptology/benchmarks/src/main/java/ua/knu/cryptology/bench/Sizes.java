@@ -0,0 +1,29 @@
+package ua.knu.cryptology.bench;
+
+/**
+ * Спільні розміри повідомлень для бенчмарків: 16 B ... 64 MiB.
+ */
+final class Sizes {
+
+    static final String S_16B = "16";
+    static final String S_1KIB = "1024";
+    static final String S_64KIB = "65536";
+    static final String S_1MIB = "1048576";
+    static final String S_64MIB = "67108864";
+
+    private Sizes() {
+    }
+
+    /** детерміновані псевдовипадкові дані, щоб прогони були відтворюваними */
+    static byte[] data(int size) {
+        byte[] data = new byte[size];
+        long x = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < size; i++) {
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+            data[i] = (byte) x;
+        }
+        return data;
+    }
+}
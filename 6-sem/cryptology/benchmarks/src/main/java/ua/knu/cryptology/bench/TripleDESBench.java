@@ -0,0 +1,84 @@
+package ua.knu.cryptology.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 3DES-EDE блок за блоком: три виклики еталонного DES (E-D-E), три виклики FastDES
+ * (кожен зі своїми IP/IP^(-1)) і TripleDES (спільні IP/IP^(-1), розгорнуті ключі).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TripleDESBench {
+
+    static final long K1 = 0x0123456789ABCDEFL;
+    static final long K2 = 0x23456789ABCDEF01L;
+    static final long K3 = 0x456789ABCDEF0123L;
+
+    private static final MethodHandle DES_ENCRYPT = Labs.DES_ENCRYPT;
+    private static final MethodHandle DES_DECRYPT = Labs.DES_DECRYPT;
+    private static final MethodHandle FAST_ENCRYPT = Labs.FAST_DES_ENCRYPT;
+    private static final MethodHandle FAST_DECRYPT = Labs.findVirtual("FastDES", "decrypt",
+            MethodType.methodType(long.class, long.class));
+    private static final MethodHandle BLOCK_ENCRYPT = Labs.BLOCK_ENCRYPT;
+
+    //еталонний DES повільний, тому великих розмірів тут немає
+    @Param({Sizes.S_16B, Sizes.S_1KIB})
+    public int size;
+
+    private long[] blocks;
+    private int[][] sub1, sub2, sub3;
+    private Object fast1, fast2, fast3;
+    private Object tripleDes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        byte[] data = Sizes.data(size);
+        blocks = new long[size / 8];
+        for (int i = 0; i < blocks.length; i++) {
+            long v = 0;
+            for (int j = 0; j < 8; j++) v = (v << 8) | (data[8 * i + j] & 0xFF);
+            blocks[i] = v;
+        }
+        sub1 = (int[][]) Labs.DES_SUBKEYS.invokeExact(K1);
+        sub2 = (int[][]) Labs.DES_SUBKEYS.invokeExact(K2);
+        sub3 = (int[][]) Labs.DES_SUBKEYS.invokeExact(K3);
+        fast1 = (Object) Labs.FAST_DES_NEW.invokeExact(K1);
+        fast2 = (Object) Labs.FAST_DES_NEW.invokeExact(K2);
+        fast3 = (Object) Labs.FAST_DES_NEW.invokeExact(K3);
+        tripleDes = (Object) Labs.TDES_NEW.invokeExact(K1, K2, K3);
+    }
+
+    @Benchmark
+    public void naiveDes(Blackhole bh) throws Throwable {
+        for (long block : blocks) {
+            long x = (long) DES_ENCRYPT.invokeExact(block, sub1);
+            x = (long) DES_DECRYPT.invokeExact(x, sub2);
+            bh.consume((long) DES_ENCRYPT.invokeExact(x, sub3));
+        }
+    }
+
+    @Benchmark
+    public void fastDesThreeCalls(Blackhole bh) throws Throwable {
+        for (long block : blocks) {
+            long x = (long) FAST_ENCRYPT.invokeExact(fast1, block);
+            x = (long) FAST_DECRYPT.invokeExact(fast2, x);
+            bh.consume((long) FAST_ENCRYPT.invokeExact(fast3, x));
+        }
+    }
+
+    @Benchmark
+    public void tripleDes(Blackhole bh) throws Throwable {
+        for (long block : blocks) {
+            bh.consume((long) BLOCK_ENCRYPT.invokeExact(tripleDes, block));
+        }
+    }
+}
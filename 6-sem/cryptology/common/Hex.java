@@ -0,0 +1,85 @@
+import java.util.Arrays;
+
+/**
+ * табличне hex-кодування для обох лабораторних (хеші MD4, шифротексти DES).
+ * <p>
+ * на відміну від {@code String.format("%02x", ...)}, не розбирає рядок формату і не створює
+ * Formatter на кожен байт: символи беруться з готових таблиць і пишуться у наперед виділений масив
+ */
+public final class Hex {
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    //пара символів для кожного значення байта: PAIRS[2*b], PAIRS[2*b+1]
+    private static final char[] PAIRS = new char[512];
+
+    //значення hex-символу або -1 для недопустимого
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            PAIRS[2 * b] = DIGITS[b >>> 4];
+            PAIRS[2 * b + 1] = DIGITS[b & 0xF];
+        }
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) VALUES['0' + i] = (byte) i;
+        for (int i = 0; i < 6; i++) {
+            VALUES['a' + i] = (byte) (10 + i);
+            VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private Hex() {
+    }
+
+    /** байти -> hex-рядок у нижньому регістрі */
+    public static String encode(byte[] bytes) {
+        char[] out = new char[2 * bytes.length];
+        encode(bytes, 0, bytes.length, out, 0);
+        return new String(out);
+    }
+
+    /**
+     * кодує src[off..off+len) у dst, починаючи з dstOff (2 символи на байт)
+     */
+    public static void encode(byte[] src, int off, int len, char[] dst, int dstOff) {
+        for (int i = 0; i < len; i++) {
+            int p = 2 * (src[off + i] & 0xFF);
+            dst[dstOff + 2 * i] = PAIRS[p];
+            dst[dstOff + 2 * i + 1] = PAIRS[p + 1];
+        }
+    }
+
+    /**
+     * hex-рядок -> байти (регістр не важливий)
+     *
+     * @throws IllegalArgumentException непарна довжина або недопустимий символ
+     */
+    public static byte[] decode(CharSequence hex) {
+        if ((hex.length() & 1) != 0)
+            throw new IllegalArgumentException("Hex string has odd length: " + hex.length());
+        byte[] out = new byte[hex.length() / 2];
+        decode(hex, 0, hex.length(), out, 0);
+        return out;
+    }
+
+    /**
+     * декодує len символів (парну к-сть) із hex[off..] у dst, починаючи з dstOff
+     */
+    public static void decode(CharSequence hex, int off, int len, byte[] dst, int dstOff) {
+        if ((len & 1) != 0)
+            throw new IllegalArgumentException("Hex length must be even: " + len);
+        for (int i = 0; i < len; i += 2) {
+            int hi = value(hex.charAt(off + i), off + i);
+            int lo = value(hex.charAt(off + i + 1), off + i + 1);
+            dst[dstOff + i / 2] = (byte) ((hi << 4) | lo);
+        }
+    }
+
+    private static int value(char c, int index) {
+        int v = c < 128 ? VALUES[c] : -1;
+        if (v < 0)
+            throw new IllegalArgumentException("Invalid hex character '" + c + "' at index " + index);
+        return v;
+    }
+}
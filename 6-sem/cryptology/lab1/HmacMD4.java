@@ -0,0 +1,71 @@
+/**
+ * HMAC-MD4 (RFC 2104): HMAC(K, m) = MD4((K ^ opad) || MD4((K ^ ipad) || m)).
+ * <p>
+ * (K ^ ipad) і (K ^ opad) займають рівно один 64-байтний блок, тому стан MD4 після них
+ * обчислюється один раз на ключ. для кожного повідомлення стан лише копіюється -
+ * це економить два стиснення блоку і конкатенацію ключа з повідомленням.
+ * <p>
+ * екземпляр не потокобезпечний; для кількох потоків з тим самим ключем - {@link #copy()},
+ * яка не розгортає ключ заново
+ */
+public class HmacMD4 {
+
+    private static final int BLOCK_SIZE = 64;
+    private static final byte IPAD = 0x36;
+    private static final byte OPAD = 0x5c;
+
+    //стани після (K ^ ipad) і (K ^ opad) - тільки читаються, тому спільні для копій
+    private final MD4 innerKeyed;
+    private final MD4 outerKeyed;
+
+    //робочі рушії та буфер для внутрішнього хешу
+    private final MD4 inner = new MD4();
+    private final MD4 outer = new MD4();
+    private final byte[] innerDigest = new byte[16];
+
+    /**
+     * @param key ключ довільної довжини (довший за блок спочатку хешується)
+     */
+    public HmacMD4(byte[] key) {
+        byte[] k = key.length > BLOCK_SIZE ? MD4.hash(key) : key;
+        byte[] pad = new byte[BLOCK_SIZE];
+
+        for (int i = 0; i < BLOCK_SIZE; i++) pad[i] = (byte) ((i < k.length ? k[i] : 0) ^ IPAD);
+        innerKeyed = new MD4().update(pad);
+
+        for (int i = 0; i < BLOCK_SIZE; i++) pad[i] = (byte) ((i < k.length ? k[i] : 0) ^ OPAD);
+        outerKeyed = new MD4().update(pad);
+    }
+
+    private HmacMD4(HmacMD4 other) {
+        this.innerKeyed = other.innerKeyed;
+        this.outerKeyed = other.outerKeyed;
+    }
+
+    /** новий екземпляр з тим самим (вже розгорнутим) ключем - для іншого потоку */
+    public HmacMD4 copy() {
+        return new HmacMD4(this);
+    }
+
+    public byte[] mac(byte[] message) {
+        byte[] out = new byte[16];
+        mac(message, 0, message.length, out, 0);
+        return out;
+    }
+
+    /**
+     * MAC повідомлення message[off..off+len) у out[outOff..outOff+15] без виділення пам'яті
+     */
+    public void mac(byte[] message, int off, int len, byte[] out, int outOff) {
+        inner.copyFrom(innerKeyed);
+        inner.update(message, off, len).digest(innerDigest, 0);
+
+        outer.copyFrom(outerKeyed);
+        outer.update(innerDigest).digest(out, outOff);
+    }
+
+    /** одноразовий виклик: розгортання ключа + MAC */
+    public static byte[] mac(byte[] key, byte[] message) {
+        return new HmacMD4(key).mac(message);
+    }
+}
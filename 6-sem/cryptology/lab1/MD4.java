@@ -1,18 +1,22 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
 
 public class MD4 {
     
     //початковий стан
-    private static final int INIT_H1 = 0x67452301;
-    private static final int INIT_H2 = 0xEFCDAB89;
-    private static final int INIT_H3 = 0x98BADCFE;
-    private static final int INIT_H4 = 0x10325476;
+    static final int INIT_H1 = 0x67452301;
+    static final int INIT_H2 = 0xEFCDAB89;
+    static final int INIT_H3 = 0x98BADCFE;
+    static final int INIT_H4 = 0x10325476;
 
-    private static final int K1 = 0x00000000; //раунд 1
-    private static final int K2 = 0x5A827999; //раунд 2: floor(2^30 * sqrt(2))
-    private static final int K3 = 0x6ED9EBA1; //раунд 3: floor(2^30 * sqrt(3))
+    static final int K1 = 0x00000000; //раунд 1
+    static final int K2 = 0x5A827999; //раунд 2: floor(2^30 * sqrt(2))
+    static final int K3 = 0x6ED9EBA1; //раунд 3: floor(2^30 * sqrt(3))
 
     private static final int[] Z = {
         //порядок слів блоку для кожного раунду
@@ -77,6 +81,39 @@ public class MD4 {
     }
 
 
+    //стиснення одного 512-бітного блоку: 3 раунди по 16 кроків
+    private static void compress(int[] state, int[] X) {
+        int A = state[0], B = state[1], C = state[2], D = state[3];
+ 
+        for (int j = 0; j < 48; j++) {
+            int funcResult;
+            int k;
+ 
+            if (j < 16) {
+                funcResult = f(B, C, D);
+                k = K1;
+            } else if (j < 32) {
+                funcResult = g(B, C, D);
+                k = K2;
+            } else {
+                funcResult = h(B, C, D);
+                k = K3;
+            }
+ 
+            int t = leftRotate(A + funcResult + X[Z[j]] + k, W[j]);
+ 
+            A = D;
+            D = C;
+            C = B;
+            B = t;
+        }
+        state[0] += A;
+        state[1] += B;
+        state[2] += C;
+        state[3] += D;
+    }
+
+
     //основна функція обчислення MD4
     /**
      * @param message вхідні дані
@@ -84,10 +121,7 @@ public class MD4 {
      */
     
     public static byte[] hash(byte[] message) {
-        int H1 = INIT_H1;
-        int H2 = INIT_H2;
-        int H3 = INIT_H3;
-        int H4 = INIT_H4;
+        int[] state = {INIT_H1, INIT_H2, INIT_H3, INIT_H4};
  
         byte[] padded = pad(message);
         ByteBuffer buf = ByteBuffer.wrap(padded).order(ByteOrder.LITTLE_ENDIAN);
@@ -97,41 +131,13 @@ public class MD4 {
             for (int i = 0; i < 16; i++) {
                 X[i] = buf.getInt();
             }
- 
-            int A = H1, B = H2, C = H3, D = H4;
- 
-            for (int j = 0; j < 48; j++) {
-                int funcResult;
-                int k;
- 
-                if (j < 16) {
-                    funcResult = f(B, C, D);
-                    k = K1;
-                } else if (j < 32) {
-                    funcResult = g(B, C, D);
-                    k = K2;
-                } else {
-                    funcResult = h(B, C, D);
-                    k = K3;
-                }
- 
-                int t = leftRotate(A + funcResult + X[Z[j]] + k, W[j]);
- 
-                A = D;
-                D = C;
-                C = B;
-                B = t;
-            }
-            H1 += A;
-            H2 += B;
-            H3 += C;
-            H4 += D;
+            compress(state, X);
         }
  
         return ByteBuffer.allocate(16)
                          .order(ByteOrder.LITTLE_ENDIAN)
-                         .putInt(H1).putInt(H2)
-                         .putInt(H3).putInt(H4)
+                         .putInt(state[0]).putInt(state[1])
+                         .putInt(state[2]).putInt(state[3])
                          .array();
     }
 
@@ -142,13 +148,266 @@ public class MD4 {
      * @return хеш у вигляді рядка з 32 hex-символів
      */
     public static String hashHex(String text) {
-        byte[] digest = hash(text.getBytes(StandardCharsets.UTF_8));
-        StringBuilder sb = new StringBuilder(32);
-        for (byte b : digest) {
-            sb.append(String.format("%02x", b & 0xFF));
+        return Hex.encode(hash(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+
+
+    // -- інкрементальний (потоковий) режим
+    //у пам'яті тримається лише поточний стан і не більше одного неповного 64-байтного блоку,
+    //тому можна хешувати потоки довільної довжини
+
+    //little-endian представлення 32-бітних слів поверх byte[] / ByteBuffer
+    private static final VarHandle LE_INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LE_INT_BUF = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LE_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final int[] state = new int[4];
+    private final byte[] buffer = new byte[64];
+    private int bufferLen;                   //скільки байт зараз у buffer
+    private long byteCount;                  //загальна довжина повідомлення
+
+    public MD4() {
+        reset();
+    }
+
+    /** повертає рушій у початковий стан (можна хешувати нове повідомлення) */
+    public final void reset() {
+        state[0] = INIT_H1;
+        state[1] = INIT_H2;
+        state[2] = INIT_H3;
+        state[3] = INIT_H4;
+        bufferLen = 0;
+        byteCount = 0;
+    }
+
+    /** незалежна копія поточного стану (напр. після спільного префікса) */
+    public MD4 copy() {
+        MD4 md = new MD4();
+        md.copyFrom(this);
+        return md;
+    }
+
+    /**
+     * переносить у цей рушій стан іншого без виділення пам'яті -
+     * дозволяє один раз обробити спільний префікс і продовжувати з нього багато разів
+     */
+    public void copyFrom(MD4 other) {
+        System.arraycopy(other.state, 0, state, 0, 4);
+        System.arraycopy(other.buffer, 0, buffer, 0, other.bufferLen);
+        bufferLen = other.bufferLen;
+        byteCount = other.byteCount;
+    }
+
+    public MD4 update(byte[] input) {
+        return update(input, 0, input.length);
+    }
+
+    /**
+     * додає до повідомлення len байт із масиву, починаючи з off
+     */
+    public MD4 update(byte[] input, int off, int len) {
+        Objects.checkFromIndexSize(off, len, input.length);
+        byteCount += len;
+
+        //спочатку доповнюємо неповний блок із попереднього виклику
+        if (bufferLen > 0) {
+            int n = Math.min(64 - bufferLen, len);
+            System.arraycopy(input, off, buffer, bufferLen, n);
+            bufferLen += n;
+            off += n;
+            len -= n;
+            if (bufferLen < 64) return this;
+            processBlock(buffer, 0);
+            bufferLen = 0;
+        }
+
+        //повні блоки беремо прямо з вхідного масиву, без копіювання
+        while (len >= 64) {
+            processBlock(input, off);
+            off += 64;
+            len -= 64;
+        }
+
+        System.arraycopy(input, off, buffer, 0, len);
+        bufferLen = len;
+        return this;
+    }
+
+    /**
+     * додає до повідомлення всі байти, що лишились у буфері (position -> limit)
+     */
+    public MD4 update(ByteBuffer input) {
+        if (input.hasArray()) {
+            int len = input.remaining();
+            update(input.array(), input.arrayOffset() + input.position(), len);
+            input.position(input.position() + len);
+            return this;
+        }
+        //direct / read-only буфер: повні блоки читаються прямо з нього,
+        //через внутрішній блок проходять лише неповні хвости
+        while (input.hasRemaining()) {
+            if (bufferLen == 0 && input.remaining() >= 64) {
+                int pos = input.position();
+                int end = pos + (input.remaining() & ~63);
+                for (int p = pos; p < end; p += 64) {
+                    processBlock(input, p);
+                }
+                byteCount += end - pos;
+                input.position(end);
+                continue;
+            }
+            int n = Math.min(64 - bufferLen, input.remaining());
+            input.get(buffer, bufferLen, n);
+            bufferLen += n;
+            byteCount += n;
+            if (bufferLen == 64) {
+                processBlock(buffer, 0);
+                bufferLen = 0;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * завершує обчислення: доповнює лише останній блок і повертає 16-байтний хеш.
+     * після виклику рушій скидається у початковий стан
+     */
+    public byte[] digest() {
+        byte[] out = new byte[16];
+        digest(out, 0);
+        return out;
+    }
+
+    /**
+     * те саме, але хеш записується в out[off..off+15] без виділення пам'яті
+     */
+    public void digest(byte[] out, int off) {
+        long bitLen = byteCount * 8;
+
+        buffer[bufferLen++] = (byte) 0x80;
+        if (bufferLen > 56) {
+            //довжина не влазить у цей блок - потрібен ще один
+            Arrays.fill(buffer, bufferLen, 64, (byte) 0);
+            processBlock(buffer, 0);
+            bufferLen = 0;
         }
-        return sb.toString();
+        Arrays.fill(buffer, bufferLen, 56, (byte) 0);
+        LE_LONG.set(buffer, 56, bitLen);
+        processBlock(buffer, 0);
+
+        for (int i = 0; i < 4; i++) {
+            LE_INT.set(out, off + 4 * i, state[i]);
+        }
+        reset();
+    }
+
+    //64 байти з block[off..] -> 16 слів little-endian -> стиснення.
+    //слова читаються напряму через VarHandle, без проміжного масиву
+    private void processBlock(byte[] block, int off) {
+        int x0 = (int) LE_INT.get(block, off + 0);
+        int x1 = (int) LE_INT.get(block, off + 4);
+        int x2 = (int) LE_INT.get(block, off + 8);
+        int x3 = (int) LE_INT.get(block, off + 12);
+        int x4 = (int) LE_INT.get(block, off + 16);
+        int x5 = (int) LE_INT.get(block, off + 20);
+        int x6 = (int) LE_INT.get(block, off + 24);
+        int x7 = (int) LE_INT.get(block, off + 28);
+        int x8 = (int) LE_INT.get(block, off + 32);
+        int x9 = (int) LE_INT.get(block, off + 36);
+        int x10 = (int) LE_INT.get(block, off + 40);
+        int x11 = (int) LE_INT.get(block, off + 44);
+        int x12 = (int) LE_INT.get(block, off + 48);
+        int x13 = (int) LE_INT.get(block, off + 52);
+        int x14 = (int) LE_INT.get(block, off + 56);
+        int x15 = (int) LE_INT.get(block, off + 60);
+        compress(x0, x1, x2, x3, x4, x5, x6, x7,
+                 x8, x9, x10, x11, x12, x13, x14, x15);
     }
 
+    //те саме для ByteBuffer (зокрема direct / memory-mapped) за абсолютним індексом
+    private void processBlock(ByteBuffer block, int off) {
+        int x0 = (int) LE_INT_BUF.get(block, off + 0);
+        int x1 = (int) LE_INT_BUF.get(block, off + 4);
+        int x2 = (int) LE_INT_BUF.get(block, off + 8);
+        int x3 = (int) LE_INT_BUF.get(block, off + 12);
+        int x4 = (int) LE_INT_BUF.get(block, off + 16);
+        int x5 = (int) LE_INT_BUF.get(block, off + 20);
+        int x6 = (int) LE_INT_BUF.get(block, off + 24);
+        int x7 = (int) LE_INT_BUF.get(block, off + 28);
+        int x8 = (int) LE_INT_BUF.get(block, off + 32);
+        int x9 = (int) LE_INT_BUF.get(block, off + 36);
+        int x10 = (int) LE_INT_BUF.get(block, off + 40);
+        int x11 = (int) LE_INT_BUF.get(block, off + 44);
+        int x12 = (int) LE_INT_BUF.get(block, off + 48);
+        int x13 = (int) LE_INT_BUF.get(block, off + 52);
+        int x14 = (int) LE_INT_BUF.get(block, off + 56);
+        int x15 = (int) LE_INT_BUF.get(block, off + 60);
+        compress(x0, x1, x2, x3, x4, x5, x6, x7,
+                 x8, x9, x10, x11, x12, x13, x14, x15);
+    }
+
+    //розгорнуте стиснення: 48 кроків зі сталими індексами слів і зсувами.
+    //результат ідентичний compress(int[], int[]), але без таблиць Z/W і розгалужень
+    private void compress(int x0, int x1, int x2, int x3, int x4, int x5, int x6, int x7,
+                          int x8, int x9, int x10, int x11, int x12, int x13, int x14, int x15) {
+        int a = state[0], b = state[1], c = state[2], d = state[3];
 
-}
\ No newline at end of file
+        //раунд 1
+        a = Integer.rotateLeft(a + ((b & c) | (~b & d)) + x0, 3);
+        d = Integer.rotateLeft(d + ((a & b) | (~a & c)) + x1, 7);
+        c = Integer.rotateLeft(c + ((d & a) | (~d & b)) + x2, 11);
+        b = Integer.rotateLeft(b + ((c & d) | (~c & a)) + x3, 19);
+        a = Integer.rotateLeft(a + ((b & c) | (~b & d)) + x4, 3);
+        d = Integer.rotateLeft(d + ((a & b) | (~a & c)) + x5, 7);
+        c = Integer.rotateLeft(c + ((d & a) | (~d & b)) + x6, 11);
+        b = Integer.rotateLeft(b + ((c & d) | (~c & a)) + x7, 19);
+        a = Integer.rotateLeft(a + ((b & c) | (~b & d)) + x8, 3);
+        d = Integer.rotateLeft(d + ((a & b) | (~a & c)) + x9, 7);
+        c = Integer.rotateLeft(c + ((d & a) | (~d & b)) + x10, 11);
+        b = Integer.rotateLeft(b + ((c & d) | (~c & a)) + x11, 19);
+        a = Integer.rotateLeft(a + ((b & c) | (~b & d)) + x12, 3);
+        d = Integer.rotateLeft(d + ((a & b) | (~a & c)) + x13, 7);
+        c = Integer.rotateLeft(c + ((d & a) | (~d & b)) + x14, 11);
+        b = Integer.rotateLeft(b + ((c & d) | (~c & a)) + x15, 19);
+        //раунд 2
+        a = Integer.rotateLeft(a + ((b & c) | (b & d) | (c & d)) + x0 + K2, 3);
+        d = Integer.rotateLeft(d + ((a & b) | (a & c) | (b & c)) + x4 + K2, 5);
+        c = Integer.rotateLeft(c + ((d & a) | (d & b) | (a & b)) + x8 + K2, 9);
+        b = Integer.rotateLeft(b + ((c & d) | (c & a) | (d & a)) + x12 + K2, 13);
+        a = Integer.rotateLeft(a + ((b & c) | (b & d) | (c & d)) + x1 + K2, 3);
+        d = Integer.rotateLeft(d + ((a & b) | (a & c) | (b & c)) + x5 + K2, 5);
+        c = Integer.rotateLeft(c + ((d & a) | (d & b) | (a & b)) + x9 + K2, 9);
+        b = Integer.rotateLeft(b + ((c & d) | (c & a) | (d & a)) + x13 + K2, 13);
+        a = Integer.rotateLeft(a + ((b & c) | (b & d) | (c & d)) + x2 + K2, 3);
+        d = Integer.rotateLeft(d + ((a & b) | (a & c) | (b & c)) + x6 + K2, 5);
+        c = Integer.rotateLeft(c + ((d & a) | (d & b) | (a & b)) + x10 + K2, 9);
+        b = Integer.rotateLeft(b + ((c & d) | (c & a) | (d & a)) + x14 + K2, 13);
+        a = Integer.rotateLeft(a + ((b & c) | (b & d) | (c & d)) + x3 + K2, 3);
+        d = Integer.rotateLeft(d + ((a & b) | (a & c) | (b & c)) + x7 + K2, 5);
+        c = Integer.rotateLeft(c + ((d & a) | (d & b) | (a & b)) + x11 + K2, 9);
+        b = Integer.rotateLeft(b + ((c & d) | (c & a) | (d & a)) + x15 + K2, 13);
+        //раунд 3
+        a = Integer.rotateLeft(a + (b ^ c ^ d) + x0 + K3, 3);
+        d = Integer.rotateLeft(d + (a ^ b ^ c) + x8 + K3, 9);
+        c = Integer.rotateLeft(c + (d ^ a ^ b) + x4 + K3, 11);
+        b = Integer.rotateLeft(b + (c ^ d ^ a) + x12 + K3, 15);
+        a = Integer.rotateLeft(a + (b ^ c ^ d) + x2 + K3, 3);
+        d = Integer.rotateLeft(d + (a ^ b ^ c) + x10 + K3, 9);
+        c = Integer.rotateLeft(c + (d ^ a ^ b) + x6 + K3, 11);
+        b = Integer.rotateLeft(b + (c ^ d ^ a) + x14 + K3, 15);
+        a = Integer.rotateLeft(a + (b ^ c ^ d) + x1 + K3, 3);
+        d = Integer.rotateLeft(d + (a ^ b ^ c) + x9 + K3, 9);
+        c = Integer.rotateLeft(c + (d ^ a ^ b) + x5 + K3, 11);
+        b = Integer.rotateLeft(b + (c ^ d ^ a) + x13 + K3, 15);
+        a = Integer.rotateLeft(a + (b ^ c ^ d) + x3 + K3, 3);
+        d = Integer.rotateLeft(d + (a ^ b ^ c) + x11 + K3, 9);
+        c = Integer.rotateLeft(c + (d ^ a ^ b) + x7 + K3, 11);
+        b = Integer.rotateLeft(b + (c ^ d ^ a) + x15 + K3, 15);
+
+        state[0] += a;
+        state[1] += b;
+        state[2] += c;
+        state[3] += d;
+    }
+}
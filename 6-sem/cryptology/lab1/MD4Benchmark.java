@@ -0,0 +1,40 @@
+/**
+ * порівняння пропускної здатності: однопрохідний MD4.hash() (таблиці Z/W, int[16] на блок)
+ * проти інкрементального рушія з розгорнутим стисненням.
+ * запуск: java MD4Benchmark [розмір у байтах]
+ */
+public class MD4Benchmark {
+
+    private static final long WARMUP_BYTES = 256L << 20;   //обсяг даних для прогріву JIT
+    private static final long MEASURE_BYTES = 512L << 20;  //обсяг даних для вимірювання
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 16 * 1024 * 1024;
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) data[i] = (byte) (i * 31 + 7);
+
+        MD4 md = new MD4();
+
+        System.out.println("MD4 throughput, message size = " + size + " bytes");
+        double legacy = measure(() -> MD4.hash(data), size);
+        double fast = measure(() -> md.update(data).digest(), size);
+
+        System.out.printf("  MD4.hash()          : %8.1f MiB/s%n", legacy);
+        System.out.printf("  MD4 update/digest   : %8.1f MiB/s%n", fast);
+        System.out.printf("  speedup             : %8.2fx%n", fast / legacy);
+    }
+
+    //повертає середню швидкість у MiB/s після прогріву JIT
+    private static double measure(Runnable op, int size) {
+        long warmup = Math.max(1, WARMUP_BYTES / Math.max(size, 1));
+        long rounds = Math.max(1, MEASURE_BYTES / Math.max(size, 1));
+
+        for (long i = 0; i < warmup; i++) op.run();
+
+        long start = System.nanoTime();
+        for (long i = 0; i < rounds; i++) op.run();
+        long elapsed = System.nanoTime() - start;
+
+        return (double) size * rounds / (1 << 20) / (elapsed / 1e9);
+    }
+}
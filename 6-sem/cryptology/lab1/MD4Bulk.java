@@ -0,0 +1,130 @@
+/**
+ * пакетне хешування великої кількості коротких повідомлень (ключі, ідентифікатори).
+ * <p>
+ * якщо доступний Vector API (клас MD4Lanes з каталогу vector/ на classpath і
+ * {@code --add-modules jdk.incubator.vector}), повідомлення
+ * обробляються групами: стан кожного повідомлення займає окрему смугу (lane) IntVector,
+ * і один прохід 48 кроків стискає блоки одразу всіх повідомлень групи.
+ * інакше використовується скалярний шлях на одному перевикористовуваному рушії MD4.
+ * результат завжди збігається з {@link MD4#hash(byte[])}
+ */
+public class MD4Bulk {
+
+    /** реалізація пакетного хешування: messages[from..to) -> out[outOff..] по 16 байт */
+    interface Backend {
+        void hash(byte[][] messages, int from, int to, byte[] out, int outOff);
+
+        String name();
+    }
+
+    private final Backend backend;
+
+    //статистика для звіту про швидкість
+    private long messagesHashed;
+    private long nanosSpent;
+
+    /** обирає векторний шлях, якщо він доступний */
+    public MD4Bulk() {
+        this(true);
+    }
+
+    /**
+     * @param preferVector false - примусово скалярний шлях (для порівняння і тестів)
+     */
+    public MD4Bulk(boolean preferVector) {
+        Backend vector = preferVector ? loadVectorBackend() : null;
+        this.backend = vector != null ? vector : new Scalar();
+    }
+
+    /**
+     * хешує всі повідомлення
+     *
+     * @return масив довжини 16 * messages.length, хеш i-го повідомлення у [16*i, 16*i+16)
+     */
+    public byte[] hash(byte[][] messages) {
+        byte[] out = new byte[16 * messages.length];
+        hash(messages, out, 0);
+        return out;
+    }
+
+    /**
+     * хешує всі повідомлення у переданий буфер (без виділення пам'яті на повідомлення)
+     */
+    public void hash(byte[][] messages, byte[] out, int outOff) {
+        if (outOff < 0 || out.length - outOff < 16L * messages.length)
+            throw new IndexOutOfBoundsException("out too small for " + messages.length + " digests");
+
+        long start = System.nanoTime();
+        backend.hash(messages, 0, messages.length, out, outOff);
+        nanosSpent += System.nanoTime() - start;
+        messagesHashed += messages.length;
+    }
+
+    /** назва шляху: "vector(N lanes)" або "scalar" */
+    public String backend() {
+        return backend.name();
+    }
+
+    public long messagesHashed() {
+        return messagesHashed;
+    }
+
+    /** середня швидкість за весь час життя об'єкта */
+    public double messagesPerSecond() {
+        return nanosSpent == 0 ? 0 : messagesHashed / (nanosSpent / 1e9);
+    }
+
+    public void resetStats() {
+        messagesHashed = 0;
+        nanosSpent = 0;
+    }
+
+    //векторний клас завантажується лише коли модуль присутній і клас скомпільовано, інакше - скалярний шлях
+    private static Backend loadVectorBackend() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+        try {
+            return (Backend) Class.forName("MD4Lanes").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    //скалярний шлях: один рушій на весь пакет, хеш пишеться прямо у вихідний буфер
+    private static final class Scalar implements Backend {
+        private final MD4 md = new MD4();
+
+        @Override
+        public void hash(byte[][] messages, int from, int to, byte[] out, int outOff) {
+            for (int i = from; i < to; i++) {
+                md.update(messages[i]).digest(out, outOff + 16 * (i - from));
+            }
+        }
+
+        @Override
+        public String name() {
+            return "scalar";
+        }
+    }
+
+    /**
+     * порівняння швидкостей: java --add-modules jdk.incubator.vector MD4Bulk [к-сть] [довжина]
+     * (без прапорця і без vector/ на classpath міряється лише скалярний шлях)
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int length = args.length > 1 ? Integer.parseInt(args[1]) : 24;
+
+        byte[][] messages = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            messages[i] = String.format("key-%0" + Math.max(1, length - 4) + "d", i).getBytes();
+        }
+
+        for (MD4Bulk bulk : new MD4Bulk[] {new MD4Bulk(false), new MD4Bulk(true)}) {
+            byte[] out = new byte[16 * count];
+            for (int i = 0; i < 20; i++) bulk.hash(messages, out, 0);   //прогрів JIT
+            bulk.resetStats();
+            for (int i = 0; i < 10; i++) bulk.hash(messages, out, 0);
+            System.out.printf("  %-18s : %,12.0f messages/s%n", bulk.backend(), bulk.messagesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * пакетне хешування дерева каталогів: кожен файл відображається в пам'ять (FileChannel.map)
+ * і подається в MD4 без копіювання у byte[], файли обробляються паралельно на обмеженому пулі.
+ * пікове використання купи не залежить від розміру файлів
+ */
+public class MD4FileHasher {
+
+    //файл відображається вікнами, бо один MappedByteBuffer обмежений 2 GB
+    static final long MAP_WINDOW = 64L << 20;
+
+    private final int threads;
+
+    /**
+     * @param threads кількість потоків пулу (не більше стількох файлів хешується одночасно)
+     */
+    public MD4FileHasher(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1: " + threads);
+        this.threads = threads;
+    }
+
+    /**
+     * хеш одного файлу
+     *
+     * @param file шлях до звичайного файлу
+     * @return 16-байтний MD4
+     */
+    public static byte[] hashFile(Path file) throws IOException {
+        MD4 md = new MD4();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            for (long pos = 0; pos < size; pos += MAP_WINDOW) {
+                MappedByteBuffer window = ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(MAP_WINDOW, size - pos));
+                md.update(window);
+            }
+        }
+        return md.digest();
+    }
+
+    /**
+     * хешує всі звичайні файли під root паралельно
+     *
+     * @param root корінь дерева каталогів
+     * @return відносний шлях -> хеш, відсортовано за шляхом
+     */
+    public Map<Path, byte[]> hashTree(Path root) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile).sorted().toList();
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<byte[]>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                futures.add(pool.submit(() -> {
+                    try {
+                        return hashFile(file);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(file.toString(), e);
+                    }
+                }));
+            }
+
+            Map<Path, byte[]> manifest = new TreeMap<>();
+            for (int i = 0; i < files.size(); i++) {
+                manifest.put(root.relativize(files.get(i)), await(futures.get(i)));
+            }
+            return manifest;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * маніфест у форматі md4sum: "hex-хеш  шлях" по рядку на файл
+     */
+    public static void writeManifest(Map<Path, byte[]> manifest, Appendable out) throws IOException {
+        for (Map.Entry<Path, byte[]> e : manifest.entrySet()) {
+            out.append(Hex.encode(e.getValue()))
+               .append("  ")
+               .append(e.getKey().toString().replace('\\', '/'))
+               .append('\n');
+        }
+    }
+
+    //розгортає помилку задачі назад у IOException
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException u) throw u.getCause();
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * запуск: java MD4FileHasher <каталог> [потоки]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java MD4FileHasher <directory> [threads]");
+            System.exit(1);
+        }
+        Path root = Paths.get(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        Map<Path, byte[]> manifest = new MD4FileHasher(threads).hashTree(root);
+        long elapsed = System.nanoTime() - start;
+
+        writeManifest(manifest, System.out);
+        System.err.printf("%d files hashed in %.1f ms on %d threads%n", manifest.size(), elapsed / 1e6, threads);
+    }
+}
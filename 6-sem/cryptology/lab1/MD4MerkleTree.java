@@ -0,0 +1,281 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * деревоподібне хешування (дерево Меркла) поверх MD4.
+ * <p>
+ * вхід ділиться на фрагменти (chunks) фіксованого розміру, фрагменти хешуються паралельно
+ * на ForkJoinPool, а їхні хеші попарно об'єднуються до кореня. будова дерева і формат доказів -
+ * як у RFC 6962 / RFC 9162 (Certificate Transparency), лише з MD4 замість SHA-256:
+ * <pre>
+ *   лист:  MD4(0x00 || chunk)
+ *   вузол: MD4(0x01 || ліве || праве),  ліве піддерево - найбільший степінь 2, менший за n
+ * </pre>
+ * префікси 0x00/0x01 не дають видати внутрішній вузол за лист.
+ * окремий фрагмент перевіряється за коренем і доказом (хешами сусідів на шляху до кореня).
+ * <p>
+ * таке дерево збігається з попарним об'єднанням знизу вгору, де непарний останній вузол рівня
+ * переходить на рівень вище без змін, тож усі вузли зберігаються по рівнях: доказ і заміна
+ * фрагмента торкаються лише O(log n) вузлів на шляху до кореня
+ */
+public class MD4MerkleTree {
+
+    private static final byte[] LEAF_PREFIX = {0x00};
+    private static final byte[] NODE_PREFIX = {0x01};
+
+    //менше за стільки байт піддерево хешується в поточному потоці, без розгалуження
+    private static final long SEQUENTIAL_BYTES = 256 * 1024;
+
+    private final int chunkSize;
+    private final long length;
+    //levels[0] - листи, levels[h][p] - вузол над листами [p * 2^h, (p + 1) * 2^h), останній рівень - корінь
+    private final byte[][][] levels;
+    private final byte[][] leaves;
+
+    private MD4MerkleTree(int chunkSize, long length, int leafCount) {
+        this.chunkSize = chunkSize;
+        this.length = length;
+        this.levels = new byte[height(leafCount) + 1][][];
+        for (int h = 0; h < levels.length; h++) levels[h] = new byte[(int) (((long) leafCount + (1L << h) - 1) >> h)][];
+        this.leaves = levels[0];
+    }
+
+    /**
+     * будує дерево для вмісту буфера (position -> limit), буфер не змінюється
+     *
+     * @param chunkSize розмір фрагмента в байтах (останній фрагмент може бути коротшим)
+     */
+    public static MD4MerkleTree build(ByteBuffer data, int chunkSize) {
+        return build(data, chunkSize, ForkJoinPool.commonPool());
+    }
+
+    public static MD4MerkleTree build(ByteBuffer data, int chunkSize, ForkJoinPool pool) {
+        ByteBuffer src = data.slice();
+        long length = src.remaining();
+        MD4MerkleTree tree = new MD4MerkleTree(chunkSize, length, leafCount(length, chunkSize));
+        pool.invoke(tree.new Subtree(0, tree.leaves.length, i -> {
+            int from = (int) ((long) i * chunkSize);
+            int len = (int) Math.min(chunkSize, length - from);
+            return src.slice(from, len);
+        }));
+        tree.promoteLast();
+        return tree;
+    }
+
+    /**
+     * будує дерево для файлу: кожен фрагмент відображається в пам'ять окремо (FileChannel.map),
+     * тож файл не читається в купу і може бути більшим за 2 GB
+     */
+    public static MD4MerkleTree build(Path file, int chunkSize) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = ch.size();
+            MD4MerkleTree tree = new MD4MerkleTree(chunkSize, length, leafCount(length, chunkSize));
+            try {
+                ForkJoinPool.commonPool().invoke(tree.new Subtree(0, tree.leaves.length, i -> {
+                    long from = (long) i * chunkSize;
+                    return ch.map(FileChannel.MapMode.READ_ONLY, from, Math.min(chunkSize, length - from));
+                }));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            tree.promoteLast();
+            return tree;
+        }
+    }
+
+    /** корінь дерева (16 байт) */
+    public byte[] root() {
+        return levels[levels.length - 1][0].clone();
+    }
+
+    public int leafCount() {
+        return leaves.length;
+    }
+
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    /** загальна довжина даних у байтах */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * доказ для фрагмента index: хеші сусідніх піддерев від листа до кореня
+     * (PATH з RFC 6962); читає збережені вузли, нічого не хешує
+     */
+    public byte[][] proof(int index) {
+        if (index < 0 || index >= leaves.length)
+            throw new IndexOutOfBoundsException("chunk " + index + " of " + leaves.length);
+        List<byte[]> path = new ArrayList<>();
+        for (int h = 0; h < levels.length - 1; h++) {
+            int sibling = (index >> h) ^ 1;
+            //вузол без сусіда переходить на рівень вище без змін, і в доказі його немає
+            if (sibling < levels[h].length) path.add(levels[h][sibling].clone());
+        }
+        return path.toArray(new byte[0][]);
+    }
+
+    /**
+     * заміна одного фрагмента (напр. після часткового перезапису файлу):
+     * хешується новий фрагмент і вузли на його шляху до кореня, решта дерева не змінюється
+     */
+    public void updateChunk(int index, ByteBuffer chunk) {
+        if (index < 0 || index >= leaves.length)
+            throw new IndexOutOfBoundsException("chunk " + index + " of " + leaves.length);
+        if (chunk.remaining() != expectedChunkLength(index))
+            throw new IllegalArgumentException("chunk " + index + " must be " + expectedChunkLength(index) + " bytes");
+        MD4 md = new MD4();
+        leaves[index] = leafHash(md, chunk.duplicate());
+        for (int h = 0; h < levels.length - 1; h++) {
+            int left = (index >> h) & ~1;
+            levels[h + 1][left >> 1] = left + 1 < levels[h].length
+                    ? nodeHash(md, levels[h][left], levels[h][left + 1])
+                    : levels[h][left];
+        }
+    }
+
+    /**
+     * перевіряє фрагмент за коренем дерева (RFC 9162, розд. 2.1.3.2)
+     *
+     * @param root      очікуваний корінь
+     * @param index     номер фрагмента
+     * @param leafCount к-сть фрагментів у дереві
+     * @param chunk     вміст фрагмента (position -> limit)
+     * @param proof     результат {@link #proof(int)}
+     */
+    public static boolean verifyChunk(byte[] root, int index, int leafCount, ByteBuffer chunk, byte[][] proof) {
+        if (index < 0 || index >= leafCount) return false;
+        MD4 md = new MD4();
+        byte[] r = leafHash(md, chunk.duplicate());
+
+        long fn = index;
+        long sn = leafCount - 1;
+        for (byte[] p : proof) {
+            if (sn == 0) return false;
+            if ((fn & 1) == 1 || fn == sn) {
+                r = nodeHash(md, p, r);
+                while ((fn & 1) == 0 && fn != 0) {
+                    fn >>= 1;
+                    sn >>= 1;
+                }
+            } else {
+                r = nodeHash(md, r, p);
+            }
+            fn >>= 1;
+            sn >>= 1;
+        }
+        return sn == 0 && Arrays.equals(r, root);
+    }
+
+    // -- побудова
+
+    //постачальник вмісту фрагмента за номером (зріз буфера або відображена ділянка файлу)
+    @FunctionalInterface
+    private interface ChunkSource {
+        ByteBuffer chunk(int index) throws IOException;
+    }
+
+    //корінь піддерева над листами [lo, hi); листи хешуються паралельно, усі вузли зберігаються в levels
+    @SuppressWarnings("serial")
+    private final class Subtree extends RecursiveTask<byte[]> {
+        private final int lo;
+        private final int hi;
+        private final ChunkSource source;
+
+        Subtree(int lo, int hi, ChunkSource source) {
+            this.lo = lo;
+            this.hi = hi;
+            this.source = source;
+        }
+
+        @Override
+        protected byte[] compute() {
+            MD4 md = new MD4();
+            if (hi - lo == 1 || (long) (hi - lo) * chunkSize <= SEQUENTIAL_BYTES) {
+                for (int i = lo; i < hi; i++) {
+                    try {
+                        leaves[i] = leafHash(md, source.chunk(i));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return subtreeRoot(lo, hi, md);
+            }
+            int k = lo + split(hi - lo);
+            Subtree left = new Subtree(lo, k, source);
+            left.fork();
+            byte[] right = new Subtree(k, hi, source).compute();
+            return store(lo, hi, nodeHash(md, left.join(), right));
+        }
+    }
+
+    //корінь піддерева з уже обчислених листів
+    private byte[] subtreeRoot(int lo, int hi, MD4 md) {
+        if (hi - lo == 1) return leaves[lo];
+        int k = lo + split(hi - lo);
+        return store(lo, hi, nodeHash(md, subtreeRoot(lo, k, md), subtreeRoot(k, hi, md)));
+    }
+
+    //піддерево RFC 6962 [lo, hi) - це вузол рівня height(hi - lo): lo завжди кратне 2^height
+    private byte[] store(int lo, int hi, byte[] hash) {
+        int h = height(hi - lo);
+        levels[h][lo >> h] = hash;
+        return hash;
+    }
+
+    //вузли без пари (останні на рівні) піддерева RFC 6962 не створюють - копіюються знизу
+    private void promoteLast() {
+        for (int h = 1; h < levels.length; h++) {
+            int last = levels[h].length - 1;
+            if (levels[h][last] == null) levels[h][last] = levels[h - 1][2 * last];
+        }
+    }
+
+    // -- допоміжні
+
+    private static int leafCount(long length, int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        //порожній вхід - одне дерево з одного порожнього листа
+        long n = Math.max(1, (length + chunkSize - 1) / chunkSize);
+        if (n > Integer.MAX_VALUE) throw new IllegalArgumentException("too many chunks: " + n);
+        return (int) n;
+    }
+
+    private long expectedChunkLength(int index) {
+        return Math.min(chunkSize, length - (long) index * chunkSize);
+    }
+
+    //к-сть рівнів над листами в дереві з n листів: ceil(log2 n)
+    private static int height(int n) {
+        return 32 - Integer.numberOfLeadingZeros(n - 1);
+    }
+
+    //найбільший степінь двійки, строго менший за n (n >= 2)
+    private static int split(int n) {
+        return Integer.highestOneBit(n - 1);
+    }
+
+    private static byte[] leafHash(MD4 md, ByteBuffer chunk) {
+        md.update(LEAF_PREFIX);
+        md.update(chunk);
+        return md.digest();
+    }
+
+    private static byte[] nodeHash(MD4 md, byte[] left, byte[] right) {
+        md.update(NODE_PREFIX);
+        md.update(left);
+        md.update(right);
+        return md.digest();
+    }
+}
@@ -0,0 +1,391 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * перебірний пошук по MD4 для аудиту: збіг усіченого префікса хешу і пошук прообразу за словником.
+ * <p>
+ * простір кандидатів ділиться на діапазони, які обробляються на ForkJoinPool усіма ядрами.
+ * кандидати генеруються на місці (лічильник-одометр у власному буфері потоку), хеш пишеться
+ * у наперед виділений масив - у гарячому циклі пам'ять не виділяється.
+ * пошук можна зупинити ззовні ({@link #cancel()}), і він зупиняється сам після першого збігу.
+ * власний пул потоків звільняється в {@link #close()}
+ */
+public class MD4Search implements AutoCloseable {
+
+    //як часто (у кандидатах) потік звіряється з прапорцем зупинки і оновлює лічильник
+    private static final int CHECK_INTERVAL = 4096;
+
+    //розмір діапазону, який потік обробляє без подальшого поділу
+    private static final long SLICE = 1 << 16;
+
+    private static final VarHandle BE_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final ForkJoinPool pool;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final LongAdder tried = new LongAdder();
+    private volatile long startNanos;
+
+    private Consumer<Progress> listener;
+    private long reportIntervalMs;
+
+    /** знімок прогресу пошуку */
+    public record Progress(long hashesTried, long elapsedNanos) {
+        public double hashesPerSecond() {
+            return elapsedNanos == 0 ? 0 : hashesTried / (elapsedNanos / 1e9);
+        }
+    }
+
+    /** знайдений кандидат і його хеш */
+    public record Match(byte[] message, byte[] digest) {
+        @Override
+        public String toString() {
+            return new String(message, StandardCharsets.UTF_8) + " -> " + Hex.encode(digest);
+        }
+    }
+
+    public MD4Search(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * періодичний звіт про прогрес під час пошуку (викликається з окремого потоку)
+     */
+    public MD4Search onProgress(Consumer<Progress> listener, long intervalMs) {
+        this.listener = listener;
+        this.reportIntervalMs = intervalMs;
+        return this;
+    }
+
+    /**
+     * зупиняє поточний пошук (потоки завершуються протягом CHECK_INTERVAL кандидатів);
+     * виклик до старту пошуку зупиняє той пошук, що стартує наступним
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /** зупиняє потоки пулу; після цього пошук запускати не можна */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    public Progress progress() {
+        return new Progress(tried.sum(), System.nanoTime() - startNanos);
+    }
+
+    // -- пошук за усіченим префіксом хешу
+
+    /**
+     * шукає повідомлення prefix || suffix (suffix - рядок довжини suffixLength з алфавіту),
+     * перші matchBits бітів хешу якого збігаються з target
+     *
+     * @return перший знайдений збіг або порожньо, якщо простір вичерпано чи пошук скасовано
+     */
+    public Optional<Match> findPrefix(byte[] prefix, byte[] alphabet, int suffixLength, byte[] target, int matchBits) {
+        if (matchBits < 1 || matchBits > 128) throw new IllegalArgumentException("matchBits must be 1..128: " + matchBits);
+        long space = spaceSize(alphabet.length, suffixLength);
+
+        //спільний префікс обробляється один раз, далі його стан лише копіюється
+        MD4 prefixState = new MD4().update(prefix);
+        ConcurrentLinkedQueue<Match> found = new ConcurrentLinkedQueue<>();
+
+        run(() -> pool.invoke(new RangeTask(0, space, (from, to) -> {
+            MD4 md = new MD4();
+            byte[] suffix = new byte[suffixLength];
+            int[] digits = new int[suffixLength];
+            byte[] digest = new byte[16];
+
+            decode(from, alphabet, digits, suffix);
+            for (long i = from; i < to; i++) {
+                md.copyFrom(prefixState);
+                md.update(suffix, 0, suffixLength).digest(digest, 0);
+                if (prefixMatches(digest, target, matchBits)) {
+                    found.add(new Match(concat(prefix, suffix), digest.clone()));
+                    cancelled.set(true);
+                    return ((i - from) & (CHECK_INTERVAL - 1)) + 1;
+                }
+                increment(alphabet, digits, suffix);
+                if (((i - from) & (CHECK_INTERVAL - 1)) == CHECK_INTERVAL - 1) {
+                    tried.add(CHECK_INTERVAL);
+                    if (cancelled.get()) return 0;
+                }
+            }
+            return (to - from) & (CHECK_INTERVAL - 1);
+        })));
+        return Optional.ofNullable(found.peek());
+    }
+
+    // -- пошук прообразу за словником
+
+    /**
+     * хешує кожен рядок словника (файл, слова розділені '\n', '\r' відкидається)
+     * і повертає ті, хеш яких є серед targets, - по одному збігу на кожну ціль (перше знайдене слово,
+     * навіть якщо у словнику воно повторюється). зупиняється, коли знайдено всі цілі
+     */
+    public List<Match> dictionary(Path wordlist, List<byte[]> targets) throws IOException {
+        long[] keys = sortedKeys(targets);
+        int distinct = keys.length / 2;
+        ConcurrentLinkedQueue<Match> found = new ConcurrentLinkedQueue<>();
+        Set<String> matched = ConcurrentHashMap.newKeySet();   //hex уже знайдених цілей
+        AtomicInteger remaining = new AtomicInteger(distinct);
+
+        try (FileChannel ch = FileChannel.open(wordlist, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("wordlist larger than 2 GB: " + wordlist);
+            MappedByteBuffer words = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            run(() -> pool.invoke(new RangeTask(0, size, (from, to) -> {
+                ByteBuffer view = words.duplicate();
+                MD4 md = new MD4();
+                byte[] digest = new byte[16];
+                long count = 0;
+
+                //слово належить діапазону, в якому воно починається
+                int n = (int) size;
+                int p = (int) from;
+                if (p > 0 && words.get(p - 1) != '\n') p = lineEnd(words, p, n) + 1;
+                while (p < to) {
+                    int end = lineEnd(words, p, n);
+                    int wordEnd = end > p && words.get(end - 1) == '\r' ? end - 1 : end;
+                    if (wordEnd == p) {   //порожні рядки пропускаються
+                        p = end + 1;
+                        continue;
+                    }
+                    view.limit(wordEnd).position(p);
+                    md.update(view).digest(digest, 0);
+                    count++;
+
+                    //повторне слово (чи інше слово з тим самим хешем) ціль уже не зараховує
+                    if (contains(keys, digest) && matched.add(Hex.encode(digest))) {
+                        byte[] word = new byte[wordEnd - p];
+                        words.get(p, word);
+                        found.add(new Match(word, digest.clone()));
+                        if (remaining.decrementAndGet() == 0) cancelled.set(true);
+                    }
+                    if ((count & (CHECK_INTERVAL - 1)) == 0) {
+                        tried.add(CHECK_INTERVAL);
+                        if (cancelled.get()) return 0;
+                    }
+                    p = end + 1;
+                }
+                return count & (CHECK_INTERVAL - 1);
+            })));
+        }
+        return new ArrayList<>(found);
+    }
+
+    // -- спільна інфраструктура
+
+    //діапазон [from, to) кандидатів; повертає к-сть ще не врахованих у лічильнику хешів
+    @FunctionalInterface
+    private interface RangeWorker {
+        long search(long from, long to);
+    }
+
+    @SuppressWarnings("serial")
+    private final class RangeTask extends RecursiveAction {
+        private final long from;
+        private final long to;
+        private final RangeWorker worker;
+
+        RangeTask(long from, long to, RangeWorker worker) {
+            this.from = from;
+            this.to = to;
+            this.worker = worker;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.get()) return;
+            if (to - from <= SLICE) {
+                tried.add(worker.search(from, to));
+                return;
+            }
+            long mid = from + (to - from) / 2;
+            invokeAll(new RangeTask(from, mid, worker), new RangeTask(mid, to, worker));
+        }
+    }
+
+    //запускає пошук зі звітами про прогрес; прапорець зупинки скидається після завершення,
+    //тож cancel() до чи під час старту не губиться
+    private void run(Runnable search) {
+        tried.reset();
+        startNanos = System.nanoTime();
+
+        ScheduledExecutorService reporter = null;
+        if (listener != null) {
+            reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "md4-search-progress");
+                t.setDaemon(true);
+                return t;
+            });
+            reporter.scheduleAtFixedRate(() -> listener.accept(progress()),
+                    reportIntervalMs, reportIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        try {
+            search.run();
+        } finally {
+            if (reporter != null) {
+                reporter.shutdownNow();
+                //звіт, що вже виконується, може викликати cancel() - чекаємо його до скидання прапорця
+                try {
+                    reporter.awaitTermination(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            cancelled.set(false);
+        }
+    }
+
+    static long spaceSize(int alphabetSize, int length) {
+        long space = 1;
+        for (int i = 0; i < length; i++) {
+            space = Math.multiplyExact(space, alphabetSize);
+        }
+        return space;
+    }
+
+    //номер кандидата -> цифри одометра (старша цифра - перший символ)
+    private static void decode(long index, byte[] alphabet, int[] digits, byte[] suffix) {
+        for (int i = digits.length - 1; i >= 0; i--) {
+            digits[i] = (int) (index % alphabet.length);
+            suffix[i] = alphabet[digits[i]];
+            index /= alphabet.length;
+        }
+    }
+
+    //наступний кандидат: +1 до одометра, змінюються лише символи, що переносяться
+    private static void increment(byte[] alphabet, int[] digits, byte[] suffix) {
+        for (int i = digits.length - 1; i >= 0; i--) {
+            if (++digits[i] < alphabet.length) {
+                suffix[i] = alphabet[digits[i]];
+                return;
+            }
+            digits[i] = 0;
+            suffix[i] = alphabet[0];
+        }
+    }
+
+    static boolean prefixMatches(byte[] digest, byte[] target, int bits) {
+        int full = bits >>> 3;
+        for (int i = 0; i < full; i++) {
+            if (digest[i] != target[i]) return false;
+        }
+        int rest = bits & 7;
+        if (rest == 0) return true;
+        int mask = 0xFF << (8 - rest);
+        return ((digest[full] ^ target[full]) & mask) == 0;
+    }
+
+    //цілі як відсортовані пари (старші 8 байт, молодші 8 байт) - пошук без виділення пам'яті
+    private static long[] sortedKeys(List<byte[]> targets) {
+        long[][] pairs = new long[targets.size()][];
+        for (int i = 0; i < pairs.length; i++) {
+            byte[] t = targets.get(i);
+            if (t.length != 16) throw new IllegalArgumentException("MD4 digest must be 16 bytes");
+            pairs[i] = new long[] {(long) BE_LONG.get(t, 0), (long) BE_LONG.get(t, 8)};
+        }
+        Arrays.sort(pairs, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+        long[] keys = new long[2 * pairs.length];
+        int n = 0;
+        for (long[] pair : pairs) {
+            if (n > 0 && keys[2 * n - 2] == pair[0] && keys[2 * n - 1] == pair[1]) continue;
+            keys[2 * n] = pair[0];
+            keys[2 * n + 1] = pair[1];
+            n++;
+        }
+        return Arrays.copyOf(keys, 2 * n);
+    }
+
+    private static boolean contains(long[] keys, byte[] digest) {
+        long hi = (long) BE_LONG.get(digest, 0);
+        long lo = (long) BE_LONG.get(digest, 8);
+        int l = 0, r = keys.length / 2 - 1;
+        while (l <= r) {
+            int m = (l + r) >>> 1;
+            int c = keys[2 * m] != hi ? Long.compare(keys[2 * m], hi) : Long.compare(keys[2 * m + 1], lo);
+            if (c == 0) return true;
+            if (c < 0) l = m + 1;
+            else r = m - 1;
+        }
+        return false;
+    }
+
+    //позиція найближчого '\n', починаючи з p (або size, якщо рядок останній)
+    private static int lineEnd(ByteBuffer buf, int p, int size) {
+        while (p < size && buf.get(p) != '\n') p++;
+        return p;
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    /**
+     * запуск:
+     * <pre>
+     *   java MD4Search prefix &lt;hex-ціль&gt; &lt;біти&gt; [довжина суфікса] [алфавіт] [префікс повідомлення]
+     *   java MD4Search dict &lt;словник&gt; &lt;hex-ціль&gt;...
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: java MD4Search prefix <hex-target> <bits> [suffix-length] [alphabet] [message-prefix]");
+            System.err.println("       java MD4Search dict <wordlist> <hex-target>...");
+            System.exit(1);
+        }
+        try (MD4Search search = new MD4Search(Runtime.getRuntime().availableProcessors())) {
+            search.onProgress(p -> System.err.printf("  %,d hashes, %,.0f H/s%n", p.hashesTried(), p.hashesPerSecond()), 1000);
+            run(search, args);
+        }
+    }
+
+    private static void run(MD4Search search, String[] args) throws IOException {
+        if (args[0].equals("prefix")) {
+            byte[] target = Hex.decode(args[1]);
+            int bits = Integer.parseInt(args[2]);
+            int length = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+            byte[] alphabet = (args.length > 4 ? args[4] : "abcdefghijklmnopqrstuvwxyz0123456789").getBytes(StandardCharsets.UTF_8);
+            byte[] prefix = (args.length > 5 ? args[5] : "").getBytes(StandardCharsets.UTF_8);
+
+            Optional<Match> match = search.findPrefix(prefix, alphabet, length, target, bits);
+            System.out.println(match.map(Match::toString).orElse("no match"));
+        } else {
+            List<byte[]> targets = new ArrayList<>();
+            for (int i = 2; i < args.length; i++) targets.add(Hex.decode(args[i]));
+            for (Match m : search.dictionary(Paths.get(args[1]), targets)) System.out.println(m);
+        }
+        Progress p = search.progress();
+        System.err.printf("%,d hashes in %.2f s (%,.0f H/s)%n", p.hashesTried(), p.elapsedNanos() / 1e9, p.hashesPerSecond());
+    }
+}
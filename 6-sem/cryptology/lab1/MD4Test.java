@@ -1,4 +1,14 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class MD4Test {
@@ -40,4 +50,279 @@ public class MD4Test {
         });
         assertNotNull(exception, "Очікується NullPointerException, оскільки метод не розрахований на null");
     }
+
+    @Test
+    public void testStreamingMatchesOneShot() {
+        // інкрементальний рушій має давати той самий хеш, що й hash(), для довжин навколо меж блоку
+        MD4 md = new MD4();
+        for (int len : new int[] {0, 1, 55, 56, 57, 63, 64, 65, 119, 120, 128, 1000}) {
+            byte[] data = new byte[len];
+            for (int i = 0; i < len; i++) data[i] = (byte) (i * 31 + 7);
+
+            assertArrayEquals(MD4.hash(data), md.update(data).digest(), "Хеш не збігається для довжини " + len);
+        }
+    }
+
+    @Test
+    public void testStreamingInChunks() {
+        // подача даних дрібними порціями не повинна впливати на результат
+        byte[] data = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".repeat(5).getBytes(StandardCharsets.UTF_8);
+        for (int chunk : new int[] {1, 3, 7, 63, 64, 100}) {
+            MD4 md = new MD4();
+            for (int off = 0; off < data.length; off += chunk) {
+                md.update(data, off, Math.min(chunk, data.length - off));
+            }
+            assertArrayEquals(MD4.hash(data), md.digest(), "Хеш не збігається для порцій по " + chunk + " байт");
+        }
+    }
+
+    @Test
+    public void testUpdateRejectsBadRange() {
+        // off + len понад Integer.MAX_VALUE не повинно проскочити перевірку через переповнення
+        byte[] data = new byte[16];
+        MD4 md = new MD4();
+        assertThrows(IndexOutOfBoundsException.class, () -> md.update(data, 8, Integer.MAX_VALUE));
+        assertThrows(IndexOutOfBoundsException.class, () -> md.update(data, Integer.MAX_VALUE, 8));
+        assertThrows(IndexOutOfBoundsException.class, () -> md.update(data, -1, 4));
+        assertThrows(IndexOutOfBoundsException.class, () -> md.update(data, 4, -1));
+        assertArrayEquals(MD4.hash(new byte[0]), md.digest(), "Відхилені виклики не повинні змінювати стан");
+    }
+
+    @Test
+    public void testStreamingByteBuffer() {
+        // heap- і direct-буфери обробляються однаково, position зсувається до limit
+        byte[] data = "message digest".repeat(20).getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer heap = ByteBuffer.wrap(data);
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data).flip();
+
+        assertArrayEquals(MD4.hash(data), new MD4().update(heap).digest(), "Хеш heap-буфера не збігається");
+        assertArrayEquals(MD4.hash(data), new MD4().update(direct).digest(), "Хеш direct-буфера не збігається");
+        assertFalse(heap.hasRemaining(), "Буфер має бути прочитаний повністю");
+        assertFalse(direct.hasRemaining(), "Буфер має бути прочитаний повністю");
+    }
+
+    @Test
+    public void testResetDiscardsState() {
+        // після reset() попередні дані не впливають на наступний хеш
+        MD4 md = new MD4();
+        md.update("garbage".getBytes(StandardCharsets.UTF_8));
+        md.reset();
+        md.update("abc".getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(MD4.hash("abc".getBytes(StandardCharsets.UTF_8)), md.digest(), "reset() має очищати стан");
+    }
+
+    @Test
+    public void testFileHasherMatchesHash(@TempDir Path dir) throws IOException {
+        // хеш відображеного у пам'ять файлу збігається з хешем його вмісту
+        byte[] data = new byte[200_003];
+        for (int i = 0; i < data.length; i++) data[i] = (byte) (i * 131 + 17);
+        Path file = Files.write(dir.resolve("data.bin"), data);
+
+        assertArrayEquals(MD4.hash(data), MD4FileHasher.hashFile(file), "Хеш файлу не збігається");
+    }
+
+    @Test
+    public void testFileHasherManifest(@TempDir Path dir) throws IOException {
+        // маніфест містить усі файли дерева з відносними шляхами, відсортовані за шляхом
+        Files.createDirectories(dir.resolve("sub"));
+        Files.writeString(dir.resolve("b.txt"), "abc");
+        Files.writeString(dir.resolve("sub/a.txt"), "message digest");
+        Files.writeString(dir.resolve("empty.txt"), "");
+
+        Map<Path, byte[]> manifest = new MD4FileHasher(2).hashTree(dir);
+        StringBuilder out = new StringBuilder();
+        MD4FileHasher.writeManifest(manifest, out);
+
+        assertEquals("a448017aaf21d8525fc10ae87aa6729d  b.txt\n"
+                   + "31d6cfe0d16ae931b73c59d7e0c089c0  empty.txt\n"
+                   + "d9130a8164549fe818874806e1c7014b  sub/a.txt\n", out.toString(), "Маніфест сформовано некоректно");
+    }
+
+    @Test
+    public void testBulkMatchesHash() {
+        // пакетний шлях (векторний, якщо доступний, і скалярний) збігається з hash() для будь-яких довжин,
+        // у т.ч. коли к-сть повідомлень не кратна к-сті смуг і довжини в групі різні
+        byte[][] messages = new byte[203][];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = new byte[(i * 37) % 190];
+            for (int j = 0; j < messages[i].length; j++) messages[i][j] = (byte) (i + j * 13);
+        }
+
+        for (MD4Bulk bulk : new MD4Bulk[] {new MD4Bulk(false), new MD4Bulk(true)}) {
+            byte[] out = bulk.hash(messages);
+            for (int i = 0; i < messages.length; i++) {
+                assertArrayEquals(MD4.hash(messages[i]), Arrays.copyOfRange(out, 16 * i, 16 * i + 16),
+                        bulk.backend() + ": хеш повідомлення " + i + " не збігається");
+            }
+            assertEquals(messages.length, bulk.messagesHashed(), "Лічильник повідомлень некоректний");
+        }
+    }
+
+    @Test
+    public void testHmacRfc2104Vectors() {
+        // тестові входи RFC 2104 / RFC 2202 (еталонні значення обчислені незалежною реалізацією HMAC-MD4)
+        assertEquals("90a79458f58f437e21f169cdba283da6",
+                Hex.encode(HmacMD4.mac(repeat(0x0b, 16), "Hi There".getBytes(StandardCharsets.UTF_8))));
+        assertEquals("be192c588a8e914d8a59b474a828128f",
+                Hex.encode(HmacMD4.mac("Jefe".getBytes(StandardCharsets.UTF_8),
+                        "what do ya want for nothing?".getBytes(StandardCharsets.UTF_8))));
+        assertEquals("75e5fb6e71ca6dcdd9fca269a9a3cd9c",
+                Hex.encode(HmacMD4.mac(repeat(0xaa, 16), repeat(0xdd, 50))));
+        // ключ, довший за блок, спочатку хешується
+        assertEquals("545b8f2577657042df628fbb98430d5f",
+                Hex.encode(HmacMD4.mac(repeat(0xaa, 80),
+                        "Test Using Larger Than Block-Size Key - Hash Key First".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void testHmacReuseAndCopy() {
+        // повторні виклики і копії з тим самим ключем дають ті самі MAC, що й одноразовий виклик
+        byte[] key = "Jefe".getBytes(StandardCharsets.UTF_8);
+        HmacMD4 mac = new HmacMD4(key);
+        HmacMD4 copy = mac.copy();
+        for (String m : new String[] {"", "abc", "what do ya want for nothing?", "x".repeat(200)}) {
+            byte[] msg = m.getBytes(StandardCharsets.UTF_8);
+            assertArrayEquals(HmacMD4.mac(key, msg), mac.mac(msg), "Повторне використання ключа змінило MAC");
+            assertArrayEquals(HmacMD4.mac(key, msg), copy.mac(msg), "Копія дає інший MAC");
+        }
+    }
+
+    @Test
+    public void testMerkleSingleChunk() {
+        // дерево з одного фрагмента: корінь = MD4(0x00 || дані)
+        byte[] data = "message digest".getBytes(StandardCharsets.UTF_8);
+        byte[] leaf = new byte[data.length + 1];
+        System.arraycopy(data, 0, leaf, 1, data.length);
+
+        MD4MerkleTree tree = MD4MerkleTree.build(ByteBuffer.wrap(data), 1024);
+        assertEquals(1, tree.leafCount());
+        assertArrayEquals(MD4.hash(leaf), tree.root(), "Корінь дерева з одного листа некоректний");
+    }
+
+    @Test
+    public void testMerkleProofsForAllShapes() {
+        // доказ кожного фрагмента перевіряється для дерев з 1..9 листами (повні й неповні дерева),
+        // а змінений фрагмент або чужий індекс - ні
+        int chunk = 100;
+        for (int leaves = 1; leaves <= 9; leaves++) {
+            byte[] data = new byte[chunk * leaves - 37 % chunk];
+            for (int i = 0; i < data.length; i++) data[i] = (byte) (i * 7 + leaves);
+            MD4MerkleTree tree = MD4MerkleTree.build(ByteBuffer.wrap(data), chunk);
+            assertEquals(leaves, tree.leafCount());
+
+            for (int i = 0; i < leaves; i++) {
+                ByteBuffer part = ByteBuffer.wrap(data, i * chunk, Math.min(chunk, data.length - i * chunk));
+                byte[][] proof = tree.proof(i);
+                assertTrue(MD4MerkleTree.verifyChunk(tree.root(), i, leaves, part, proof),
+                        "Доказ фрагмента " + i + " з " + leaves + " не пройшов перевірку");
+
+                byte[] tampered = new byte[part.remaining()];
+                part.duplicate().get(tampered);
+                tampered[0] ^= 1;
+                assertFalse(MD4MerkleTree.verifyChunk(tree.root(), i, leaves, ByteBuffer.wrap(tampered), proof),
+                        "Змінений фрагмент не повинен проходити перевірку");
+                if (leaves > 1) {
+                    assertFalse(MD4MerkleTree.verifyChunk(tree.root(), (i + 1) % leaves, leaves, part, proof),
+                            "Доказ не повинен підходити до іншого індексу");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMerkleUpdateAndFile(@TempDir Path dir) throws IOException {
+        // дерево файлу збігається з деревом тих самих байтів; після updateChunk корінь
+        // дорівнює кореню дерева, побудованого з нуля на змінених даних
+        byte[] data = new byte[10_000];
+        for (int i = 0; i < data.length; i++) data[i] = (byte) (i * 31);
+        Path file = Files.write(dir.resolve("blob.bin"), data);
+
+        MD4MerkleTree fromBytes = MD4MerkleTree.build(ByteBuffer.wrap(data), 1024);
+        assertArrayEquals(fromBytes.root(), MD4MerkleTree.build(file, 1024).root(), "Корінь файлу не збігається");
+
+        //фрагмент усередині і останній, неповний (його вузли піднімаються рівнями без пари)
+        for (int index : new int[] {3, 9}) {
+            data[index * 1024 + 5] ^= 0x55;
+            int len = Math.min(1024, data.length - index * 1024);
+            fromBytes.updateChunk(index, ByteBuffer.wrap(data, index * 1024, len));
+            assertArrayEquals(MD4MerkleTree.build(ByteBuffer.wrap(data), 1024).root(), fromBytes.root(),
+                    "Корінь після часткового перерахунку не збігається");
+        }
+        for (int i = 0; i < fromBytes.leafCount(); i++) {
+            ByteBuffer part = ByteBuffer.wrap(data, i * 1024, Math.min(1024, data.length - i * 1024));
+            assertTrue(MD4MerkleTree.verifyChunk(fromBytes.root(), i, fromBytes.leafCount(), part, fromBytes.proof(i)),
+                    "Доказ фрагмента " + i + " після оновлення не пройшов перевірку");
+        }
+    }
+
+    @Test
+    public void testSearchTruncatedPrefix() {
+        // 16 бітів цілі з повідомлення "key-zz": пошук має знайти повідомлення
+        // з тим самим префіксом хешу, а повний 128-бітний збіг - саме "key-zz"
+        byte[] target = MD4.hash("key-zz".getBytes(StandardCharsets.UTF_8));
+        byte[] alphabet = "abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.UTF_8);
+        try (MD4Search search = new MD4Search(2)) {
+            MD4Search.Match partial = search.findPrefix("key-".getBytes(StandardCharsets.UTF_8), alphabet, 2, target, 16).orElseThrow();
+            assertArrayEquals(MD4.hash(partial.message()), partial.digest());
+            assertTrue(MD4Search.prefixMatches(partial.digest(), target, 16));
+
+            MD4Search.Match full = search.findPrefix("key-".getBytes(StandardCharsets.UTF_8), alphabet, 2, target, 128).orElseThrow();
+            assertEquals("key-zz", new String(full.message(), StandardCharsets.UTF_8));
+            assertTrue(search.progress().hashesTried() > 0);
+        }
+    }
+
+    @Test
+    public void testSearchDictionaryAndCancel(@TempDir Path dir) throws IOException {
+        // словник з '\r\n', порожнім рядком і останнім словом без '\n': знаходяться обидві цілі;
+        // cancel() зі звіту про прогрес чи до старту зупиняє перебір, не вичерпавши простір
+        Path words = Files.writeString(dir.resolve("words.txt"), "alpha\r\nbeta\n\ngamma\ndelta");
+        byte[] alphabet = "abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.UTF_8);
+        try (MD4Search search = new MD4Search(2)) {
+            List<MD4Search.Match> found = search.dictionary(words, List.of(
+                    MD4.hash("gamma".getBytes(StandardCharsets.UTF_8)), MD4.hash("delta".getBytes(StandardCharsets.UTF_8))));
+            assertEquals(2, found.size());
+            assertTrue(found.stream().anyMatch(m -> new String(m.message(), StandardCharsets.UTF_8).equals("delta")),
+                    "Останнє слово без '\\n' пропущено");
+
+            search.cancel();
+            assertTrue(search.findPrefix(new byte[0], alphabet, 8, new byte[16], 128).isEmpty());
+            assertTrue(search.progress().hashesTried() < MD4Search.spaceSize(26, 8), "cancel() до старту загубився");
+
+            search.onProgress(p -> search.cancel(), 10);
+            assertTrue(search.findPrefix(new byte[0], alphabet, 8, new byte[16], 128).isEmpty());
+            assertTrue(search.progress().hashesTried() < MD4Search.spaceSize(26, 8));
+
+            //після скасованого пошуку наступний працює як звичайно
+            search.onProgress(p -> { }, 1000);
+            assertEquals("key-zz", new String(search.findPrefix("key-".getBytes(StandardCharsets.UTF_8), alphabet, 2,
+                    MD4.hash("key-zz".getBytes(StandardCharsets.UTF_8)), 128).orElseThrow().message(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testSearchDictionaryRepeatedWords(@TempDir Path dir) throws IOException {
+        // слово-ціль, повторене тисячі разів, зараховується один раз і не зупиняє пошук
+        // до того, як знайдено решту цілей
+        StringBuilder text = new StringBuilder();
+        text.append("alpha\n".repeat(20_000));
+        for (int i = 0; i < 200_000; i++) text.append("word").append(i).append('\n');
+        text.append("omega\n");
+        Path words = Files.writeString(dir.resolve("words.txt"), text);
+
+        try (MD4Search search = new MD4Search(4)) {
+            List<MD4Search.Match> found = search.dictionary(words, List.of(
+                    MD4.hash("alpha".getBytes(StandardCharsets.UTF_8)), MD4.hash("omega".getBytes(StandardCharsets.UTF_8))));
+            List<String> messages = found.stream().map(m -> new String(m.message(), StandardCharsets.UTF_8)).sorted().toList();
+            assertEquals(List.of("alpha", "omega"), messages);
+        }
+    }
+
+    private static byte[] repeat(int value, int count) {
+        byte[] b = new byte[count];
+        Arrays.fill(b, (byte) value);
+        return b;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,200 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+import static jdk.incubator.vector.VectorOperators.GT;
+import static jdk.incubator.vector.VectorOperators.ROL;
+import static jdk.incubator.vector.VectorOperators.XOR;
+
+/**
+ * векторний шлях MD4Bulk: смуга i вектора тримає стан i-го повідомлення групи.
+ * повідомлення групи можуть мати різну к-сть блоків - для смуг, які вже закінчились,
+ * оновлення стану маскується.
+ * потребує {@code --add-modules jdk.incubator.vector} при компіляції та запуску, тому лежить в окремому
+ * каталозі: решта лабораторної компілюється звичайним javac
+ */
+final class MD4Lanes implements MD4Bulk.Backend {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private static final int K2 = MD4.K2;
+    private static final int K3 = MD4.K3;
+
+    private static final VarHandle LE_INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LE_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final int lanes = SPECIES.length();
+
+    //транспоновані слова поточного блоку: words[w * lanes + lane]
+    private final int[] words = new int[16 * lanes];
+    private final int[] blocks = new int[lanes];     //к-сть блоків після доповнення для кожної смуги
+    private final int[] laneState = new int[4 * lanes];
+    private final byte[] scratch = new byte[64];     //останній (доповнений) блок повідомлення
+
+    @Override
+    public void hash(byte[][] messages, int from, int to, byte[] out, int outOff) {
+        for (int g = from; g < to; g += lanes) {
+            int n = Math.min(lanes, to - g);
+            hashGroup(messages, g, n, out, outOff + 16 * (g - from));
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector(" + lanes + " lanes)";
+    }
+
+    //одна група з n <= lanes повідомлень
+    private void hashGroup(byte[][] messages, int first, int n, byte[] out, int outOff) {
+        int maxBlocks = 0;
+        for (int lane = 0; lane < lanes; lane++) {
+            //порожні смуги неповної групи не беруть участі (0 блоків)
+            blocks[lane] = lane < n ? (messages[first + lane].length + 8) / 64 + 1 : 0;
+            maxBlocks = Math.max(maxBlocks, blocks[lane]);
+        }
+
+        IntVector h1 = IntVector.broadcast(SPECIES, MD4.INIT_H1);
+        IntVector h2 = IntVector.broadcast(SPECIES, MD4.INIT_H2);
+        IntVector h3 = IntVector.broadcast(SPECIES, MD4.INIT_H3);
+        IntVector h4 = IntVector.broadcast(SPECIES, MD4.INIT_H4);
+        IntVector blockCount = IntVector.fromArray(SPECIES, blocks, 0);
+
+        for (int blk = 0; blk < maxBlocks; blk++) {
+            for (int lane = 0; lane < n; lane++) {
+                if (blk < blocks[lane]) loadBlock(messages[first + lane], blk, lane);
+            }
+
+            IntVector x0 = IntVector.fromArray(SPECIES, words, 0 * lanes);
+            IntVector x1 = IntVector.fromArray(SPECIES, words, 1 * lanes);
+            IntVector x2 = IntVector.fromArray(SPECIES, words, 2 * lanes);
+            IntVector x3 = IntVector.fromArray(SPECIES, words, 3 * lanes);
+            IntVector x4 = IntVector.fromArray(SPECIES, words, 4 * lanes);
+            IntVector x5 = IntVector.fromArray(SPECIES, words, 5 * lanes);
+            IntVector x6 = IntVector.fromArray(SPECIES, words, 6 * lanes);
+            IntVector x7 = IntVector.fromArray(SPECIES, words, 7 * lanes);
+            IntVector x8 = IntVector.fromArray(SPECIES, words, 8 * lanes);
+            IntVector x9 = IntVector.fromArray(SPECIES, words, 9 * lanes);
+            IntVector x10 = IntVector.fromArray(SPECIES, words, 10 * lanes);
+            IntVector x11 = IntVector.fromArray(SPECIES, words, 11 * lanes);
+            IntVector x12 = IntVector.fromArray(SPECIES, words, 12 * lanes);
+            IntVector x13 = IntVector.fromArray(SPECIES, words, 13 * lanes);
+            IntVector x14 = IntVector.fromArray(SPECIES, words, 14 * lanes);
+            IntVector x15 = IntVector.fromArray(SPECIES, words, 15 * lanes);
+
+            IntVector a = h1, b = h2, c = h3, d = h4;
+
+            //раунд 1
+            a = a.add(f(b, c, d)).add(x0).lanewise(ROL, 3);
+            d = d.add(f(a, b, c)).add(x1).lanewise(ROL, 7);
+            c = c.add(f(d, a, b)).add(x2).lanewise(ROL, 11);
+            b = b.add(f(c, d, a)).add(x3).lanewise(ROL, 19);
+            a = a.add(f(b, c, d)).add(x4).lanewise(ROL, 3);
+            d = d.add(f(a, b, c)).add(x5).lanewise(ROL, 7);
+            c = c.add(f(d, a, b)).add(x6).lanewise(ROL, 11);
+            b = b.add(f(c, d, a)).add(x7).lanewise(ROL, 19);
+            a = a.add(f(b, c, d)).add(x8).lanewise(ROL, 3);
+            d = d.add(f(a, b, c)).add(x9).lanewise(ROL, 7);
+            c = c.add(f(d, a, b)).add(x10).lanewise(ROL, 11);
+            b = b.add(f(c, d, a)).add(x11).lanewise(ROL, 19);
+            a = a.add(f(b, c, d)).add(x12).lanewise(ROL, 3);
+            d = d.add(f(a, b, c)).add(x13).lanewise(ROL, 7);
+            c = c.add(f(d, a, b)).add(x14).lanewise(ROL, 11);
+            b = b.add(f(c, d, a)).add(x15).lanewise(ROL, 19);
+            //раунд 2
+            a = a.add(g(b, c, d)).add(x0).add(K2).lanewise(ROL, 3);
+            d = d.add(g(a, b, c)).add(x4).add(K2).lanewise(ROL, 5);
+            c = c.add(g(d, a, b)).add(x8).add(K2).lanewise(ROL, 9);
+            b = b.add(g(c, d, a)).add(x12).add(K2).lanewise(ROL, 13);
+            a = a.add(g(b, c, d)).add(x1).add(K2).lanewise(ROL, 3);
+            d = d.add(g(a, b, c)).add(x5).add(K2).lanewise(ROL, 5);
+            c = c.add(g(d, a, b)).add(x9).add(K2).lanewise(ROL, 9);
+            b = b.add(g(c, d, a)).add(x13).add(K2).lanewise(ROL, 13);
+            a = a.add(g(b, c, d)).add(x2).add(K2).lanewise(ROL, 3);
+            d = d.add(g(a, b, c)).add(x6).add(K2).lanewise(ROL, 5);
+            c = c.add(g(d, a, b)).add(x10).add(K2).lanewise(ROL, 9);
+            b = b.add(g(c, d, a)).add(x14).add(K2).lanewise(ROL, 13);
+            a = a.add(g(b, c, d)).add(x3).add(K2).lanewise(ROL, 3);
+            d = d.add(g(a, b, c)).add(x7).add(K2).lanewise(ROL, 5);
+            c = c.add(g(d, a, b)).add(x11).add(K2).lanewise(ROL, 9);
+            b = b.add(g(c, d, a)).add(x15).add(K2).lanewise(ROL, 13);
+            //раунд 3
+            a = a.add(h(b, c, d)).add(x0).add(K3).lanewise(ROL, 3);
+            d = d.add(h(a, b, c)).add(x8).add(K3).lanewise(ROL, 9);
+            c = c.add(h(d, a, b)).add(x4).add(K3).lanewise(ROL, 11);
+            b = b.add(h(c, d, a)).add(x12).add(K3).lanewise(ROL, 15);
+            a = a.add(h(b, c, d)).add(x2).add(K3).lanewise(ROL, 3);
+            d = d.add(h(a, b, c)).add(x10).add(K3).lanewise(ROL, 9);
+            c = c.add(h(d, a, b)).add(x6).add(K3).lanewise(ROL, 11);
+            b = b.add(h(c, d, a)).add(x14).add(K3).lanewise(ROL, 15);
+            a = a.add(h(b, c, d)).add(x1).add(K3).lanewise(ROL, 3);
+            d = d.add(h(a, b, c)).add(x9).add(K3).lanewise(ROL, 9);
+            c = c.add(h(d, a, b)).add(x5).add(K3).lanewise(ROL, 11);
+            b = b.add(h(c, d, a)).add(x13).add(K3).lanewise(ROL, 15);
+            a = a.add(h(b, c, d)).add(x3).add(K3).lanewise(ROL, 3);
+            d = d.add(h(a, b, c)).add(x11).add(K3).lanewise(ROL, 9);
+            c = c.add(h(d, a, b)).add(x7).add(K3).lanewise(ROL, 11);
+            b = b.add(h(c, d, a)).add(x15).add(K3).lanewise(ROL, 15);
+
+            //стан оновлюється лише у смугах, де цей блок існує
+            VectorMask<Integer> active = blockCount.compare(GT, blk);
+            h1 = h1.blend(h1.add(a), active);
+            h2 = h2.blend(h2.add(b), active);
+            h3 = h3.blend(h3.add(c), active);
+            h4 = h4.blend(h4.add(d), active);
+        }
+
+        h1.intoArray(laneState, 0);
+        h2.intoArray(laneState, lanes);
+        h3.intoArray(laneState, 2 * lanes);
+        h4.intoArray(laneState, 3 * lanes);
+        for (int lane = 0; lane < n; lane++) {
+            int p = outOff + 16 * lane;
+            for (int i = 0; i < 4; i++) {
+                LE_INT.set(out, p + 4 * i, laneState[i * lanes + lane]);
+            }
+        }
+    }
+
+    //записує 16 слів блоку blk доповненого повідомлення у смугу lane.
+    //доповнення будується лише для останніх блоків у 64-байтному scratch, повні блоки читаються напряму
+    private void loadBlock(byte[] msg, int blk, int lane) {
+        int len = msg.length;
+        int base = 64 * blk;
+        byte[] src = msg;
+
+        if (base + 64 > len) {
+            int n = Math.max(0, len - base);
+            if (n > 0) System.arraycopy(msg, base, scratch, 0, n);
+            Arrays.fill(scratch, n, 64, (byte) 0);
+            if (n < 64 && base + n == len) scratch[n] = (byte) 0x80;
+            if (blocks[lane] == blk + 1) LE_LONG.set(scratch, 56, (long) len * 8);
+            src = scratch;
+            base = 0;
+        }
+        for (int w = 0; w < 16; w++) {
+            words[w * lanes + lane] = (int) LE_INT.get(src, base + 4 * w);
+        }
+    }
+
+    // -- побітові функції раундів, смуга за смугою
+
+    //вибір: d ^ (b & (c ^ d)) == (b & c) | (~b & d)
+    private static IntVector f(IntVector b, IntVector c, IntVector d) {
+        return d.lanewise(XOR, b.and(c.lanewise(XOR, d)));
+    }
+
+    //більшість: (b & c) | (d & (b | c))
+    private static IntVector g(IntVector b, IntVector c, IntVector d) {
+        return b.and(c).or(d.and(b.or(c)));
+    }
+
+    //парність
+    private static IntVector h(IntVector b, IntVector c, IntVector d) {
+        return b.lanewise(XOR, c).lanewise(XOR, d);
+    }
+}
@@ -0,0 +1,26 @@
+import java.util.Objects;
+
+/**
+ * 64-бітний блоковий шифр, над яким працюють режими ({@link CipherMode}): DES, 3DES.
+ * блок - long, старший байт - перший байт у потоці
+ */
+public interface BlockCipher {
+
+    long encrypt(long block);
+
+    long decrypt(long block);
+
+    /**
+     * шифрує blocks[off..off+count) на місці. реалізації, що обробляють кілька блоків разом
+     * ({@link BitslicedDES}), перевизначають метод; за замовчуванням - по одному блоку
+     */
+    default void encryptBlocks(long[] blocks, int off, int count) {
+        Objects.checkFromIndexSize(off, count, blocks.length);
+        for (int i = off; i < off + count; i++) blocks[i] = encrypt(blocks[i]);
+    }
+
+    default void decryptBlocks(long[] blocks, int off, int count) {
+        Objects.checkFromIndexSize(off, count, blocks.length);
+        for (int i = off; i < off + count; i++) blocks[i] = decrypt(blocks[i]);
+    }
+}
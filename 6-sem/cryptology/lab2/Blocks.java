@@ -0,0 +1,98 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * спільне для режимів: доступ до 8-байтних блоків у byte[] і розподіл великих буферів між ядрами
+ */
+final class Blocks {
+
+    /** 8 байт масиву як long (big-endian, як блок DES) */
+    static final VarHandle BE_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    /** починаючи з цього розміру буфер обробляється паралельно */
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    /** розмір частини, яку обробляє один потік (кратний 8) */
+    static final int SLICE = 256 * 1024;
+
+    /** к-сть блоків, які режими передають шифру за раз ({@link BlockCipher#encryptBlocks}) */
+    static final int BATCH = 512;
+
+    /** обробка байтів [from, to) відносно початку буфера */
+    @FunctionalInterface
+    interface RangeOp {
+        void apply(int from, int to);
+    }
+
+    private Blocks() {
+    }
+
+    /**
+     * викликає op для частин [k*SLICE, (k+1)*SLICE) буфера довжини len на ForkJoinPool;
+     * коротші за PARALLEL_THRESHOLD буфери - одним викликом op(0, len) у поточному потоці
+     */
+    static void forEachSlice(int len, RangeOp op) {
+        if (len < PARALLEL_THRESHOLD) {
+            op.apply(0, len);
+            return;
+        }
+        forEachRange(len, SLICE, op);
+    }
+
+    /**
+     * викликає op для частин [k*grain, (k+1)*grain) діапазону [0, n) на ForkJoinPool
+     * (напр. для номерів записів, а не байтів)
+     */
+    static void forEachRange(int n, int grain, RangeOp op) {
+        if (n <= grain) {
+            op.apply(0, n);
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new SliceTask(0, (int) (((long) n + grain - 1) / grain), n, grain, op));
+    }
+
+    /** к-сть частин, на які {@link #forEachSlice} ділить буфер */
+    static int slices(int len) {
+        return len < PARALLEL_THRESHOLD ? 1 : (len + SLICE - 1) / SLICE;
+    }
+
+    static void checkRange(byte[] data, int off, int len) {
+        if (off < 0 || len < 0 || len > data.length - off)
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + data.length);
+    }
+
+    static void checkWholeBlocks(int len) {
+        if ((len & 7) != 0) throw new IllegalArgumentException("length must be a multiple of 8: " + len);
+    }
+
+    //частини [lo, hi) ділиться навпіл, доки не лишиться одна
+    @SuppressWarnings("serial")
+    private static final class SliceTask extends RecursiveAction {
+        private final int lo;
+        private final int hi;
+        private final int len;
+        private final int grain;
+        private final RangeOp op;
+
+        SliceTask(int lo, int hi, int len, int grain, RangeOp op) {
+            this.lo = lo;
+            this.hi = hi;
+            this.len = len;
+            this.grain = grain;
+            this.op = op;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                op.apply(lo * grain, (int) Math.min(len, (long) (lo + 1) * grain));
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new SliceTask(lo, mid, len, grain, op), new SliceTask(mid, hi, len, grain, op));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * режим шифрування поверх {@link BlockCipher}: OFB, CTR, ECB, CBC.
+ * обидві операції працюють на місці над data[off..off+len).
+ * режими без гами (ECB, CBC) не доповнюють дані - len має бути кратним 8
+ */
+public interface CipherMode {
+
+    /**
+     * @param iv ініціалізаційний вектор (для ECB ігнорується)
+     */
+    void encrypt(byte[] data, int off, int len, long iv);
+
+    void decrypt(byte[] data, int off, int len, long iv);
+}
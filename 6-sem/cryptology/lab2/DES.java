@@ -2,7 +2,7 @@ public class DES {
     //таблиці перестановок (взяті з методички)
 
     /** початкова перестановка IP */
-    private static final int[] IP = {
+    static final int[] IP = {
         58, 50, 42, 34, 26, 18, 10,  2,
         60, 52, 44, 36, 28, 20, 12,  4,
         62, 54, 46, 38, 30, 22, 14,  6,
@@ -14,7 +14,7 @@ public class DES {
     };
 
     /** кінцева перестановка IP^(-1) */
-    private static final int[] IP_INV = {
+    static final int[] IP_INV = {
         40,  8, 48, 16, 56, 24, 64, 32,
         39,  7, 47, 15, 55, 23, 63, 31,
         38,  6, 46, 14, 54, 22, 62, 30,
@@ -26,7 +26,7 @@ public class DES {
     };
 
     /** перестановка з розширенням E: 32 → 48 біт */
-    private static final int[] E = {
+    static final int[] E = {
         32,  1,  2,  3,  4,  5,
         4,  5,  6,  7,  8,  9,
         8,  9, 10, 11, 12, 13,
@@ -38,7 +38,7 @@ public class DES {
     };
 
     /** P-блок: перестановка(permutation) 32 біти після S блоків */
-    private static final int[] P = {
+    static final int[] P = {
         16,  7, 20, 21, 29, 12, 28, 17,
         1, 15, 23, 26,  5, 18, 31, 10,
         2,  8, 24, 14, 32, 27,  3,  9,
@@ -46,7 +46,7 @@ public class DES {
     };
 
     /** PC-1( permuted choice): вибір 56 біт із 64-бітного ключа */
-    private static final int[] PC1 = {
+    static final int[] PC1 = {
         57, 49, 41, 33, 25, 17,  9,
          1, 58, 50, 42, 34, 26, 18,
         10,  2, 59, 51, 43, 35, 27,
@@ -58,7 +58,7 @@ public class DES {
     };
 
     /** PC-2: вибір 48 біт для підключа із 56-бітних половин C і D */
-    private static final int[] PC2 = {
+    static final int[] PC2 = {
         14, 17, 11, 24,  1,  5,
         3, 28, 15,  6, 21, 10,
         23, 19, 12,  4, 26,  8,
@@ -70,13 +70,13 @@ public class DES {
     };
 
     /** к-сть зсувів вліво для кожного раунда (16) */
-    private static final int[] KEY_SHIFTS = {
+    static final int[] KEY_SHIFTS = {
         1, 1, 2, 2, 2, 2, 2, 2,
         1, 2, 2, 2, 2, 2, 2, 1
     };
 
     /** 8 S-блоків з FIPS 46-3 ( блок=4 рядки * 16 стовпців) */
-    private static final int[][][] S = {
+    static final int[][][] S = {
         //S1
         {{ 14,  4, 13,  1,  2, 15, 11,  8,  3, 10,  6, 12,  5,  9,  0,  7 },
          {  0, 15,  7,  4, 14,  2, 13,  1, 10,  6, 12, 11,  9,  5,  3,  8 },
@@ -0,0 +1,124 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * розгорнутий DES-ключ: 16 підключів по 48 біт, упакованих у long
+ * (біт 1 підключа за FIPS - біт 47), одразу в порядку шифрування і розшифрування.
+ * <p>
+ * розгортання працює на словах: C і D - 28-бітні int, циклічний зсув - два зсуви і OR.
+ * для сервісів, що раз у раз бачать ті самі ключі, є обмежений LRU-кеш ({@link #cached(long)}):
+ * повторний ключ не розгортається заново. об'єкт незмінний і може спільно використовуватись потоками
+ */
+public final class DESKeySchedule {
+
+    /** місткість спільного кешу {@link #cached(long)} */
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private static final Cache SHARED = new Cache(DEFAULT_CACHE_SIZE);
+
+    private final long key;
+    private final long[] encryptKeys = new long[16];
+    private final long[] decryptKeys = new long[16];
+
+    private DESKeySchedule(long key) {
+        this.key = key;
+
+        long cd = permute(key, 64, DES.PC1);
+        int c = (int) (cd >>> 28);
+        int d = (int) cd & 0xFFFFFFF;
+        for (int r = 0; r < 16; r++) {
+            c = rotate28(c, DES.KEY_SHIFTS[r]);
+            d = rotate28(d, DES.KEY_SHIFTS[r]);
+            long k = permute(((long) c << 28) | d, 56, DES.PC2);
+            encryptKeys[r] = k;
+            decryptKeys[15 - r] = k;
+        }
+    }
+
+    /** розгортає ключ (без кешу) */
+    public static DESKeySchedule of(long key) {
+        return new DESKeySchedule(key);
+    }
+
+    /** розгорнутий ключ зі спільного LRU-кешу; розгортається лише при першому зверненні */
+    public static DESKeySchedule cached(long key) {
+        return SHARED.get(key);
+    }
+
+    /** вихідний 64-бітний ключ */
+    public long key() {
+        return key;
+    }
+
+    /** підключ раунду round (0..15) у порядку шифрування */
+    public long subkey(int round) {
+        return encryptKeys[round];
+    }
+
+    //масиви віддаються без копіювання - для гарячого циклу FastDES; змінювати їх не можна
+    long[] encryptKeys() {
+        return encryptKeys;
+    }
+
+    long[] decryptKeys() {
+        return decryptKeys;
+    }
+
+    /**
+     * обмежений кеш розгорнутих ключів: при переповненні витісняється ключ,
+     * до якого найдовше не звертались. потокобезпечний
+     */
+    public static final class Cache {
+        private final Map<Long, DESKeySchedule> map;
+        private long hits;
+        private long misses;
+
+        public Cache(int capacity) {
+            if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1: " + capacity);
+            //accessOrder = true: get переносить запис у кінець, найстаріший - перший
+            this.map = new LinkedHashMap<>(Math.min(capacity, 1 << 16) * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, DESKeySchedule> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        public synchronized DESKeySchedule get(long key) {
+            DESKeySchedule schedule = map.get(key);
+            if (schedule != null) {
+                hits++;
+                return schedule;
+            }
+            misses++;
+            schedule = new DESKeySchedule(key);
+            map.put(key, schedule);
+            return schedule;
+        }
+
+        public synchronized int size() {
+            return map.size();
+        }
+
+        public synchronized long hits() {
+            return hits;
+        }
+
+        public synchronized long misses() {
+            return misses;
+        }
+    }
+
+    // -- допоміжні
+
+    private static int rotate28(int x, int n) {
+        return ((x << n) | (x >>> (28 - n))) & 0xFFFFFFF;
+    }
+
+    //перестановка за 1-індексованою таблицею: біт 1 - старший з width біт входу
+    private static long permute(long x, int width, int[] table) {
+        long out = 0;
+        for (int src : table) out = (out << 1) | ((x >>> (width - src)) & 1);
+        return out;
+    }
+}
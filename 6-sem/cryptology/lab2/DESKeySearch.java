@@ -0,0 +1,426 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * перебір ключів DES за відомими парами (відкритий текст, шифротекст) - для аудиту слабких ключів.
+ * <p>
+ * перебираються лише 56 значущих бітів: біти парності DES ігнорує, тож кожен кандидат
+ * представляє всі 256 варіантів парності, а знайдений ключ повертається з непарною парністю.
+ * простір можна звузити, зафіксувавши відомі біти ({@link KeySpace}).
+ * <ul>
+ *   <li>підключі лінійні за бітами ключа (PC-1, зсуви і PC-2 лише переставляють біти), тому
+ *       кандидати йдуть у порядку коду Грея: сусідні ключі відрізняються одним бітом, і розклад
+ *       оновлюється 16 XOR-ами замість повного розгортання;</li>
+ *   <li>порівняння в області після IP: L16 = R15, тож після 15 раундів уже видно, чи варто
+ *       рахувати 16-й, а друга пара перевіряється лише після збігу першої;</li>
+ *   <li>простір ділиться на частини по 2^CHUNK_BITS ключів, які потоки беруть по черзі; завершені
+ *       частини періодично зберігаються у файл, з якого перебір можна продовжити.</li>
+ * </ul>
+ */
+public class DESKeySearch {
+
+    /** біти парності (молодший біт кожного байта ключа) */
+    static final long PARITY_BITS = 0x0101010101010101L;
+
+    //к-сть ключів в одній частині простору - 2^CHUNK_BITS
+    static final int CHUNK_BITS = 16;
+
+    //як часто (у ключах) потік звіряється з прапорцем зупинки
+    private static final int CHECK_INTERVAL = 4096;
+
+    /** відома пара: блок відкритого тексту і його шифротекст */
+    public record Pair(long plaintext, long ciphertext) {
+    }
+
+    /**
+     * множина ключів-кандидатів: біти під fixedMask мають значення з fixedValue,
+     * решта значущих бітів перебирається
+     */
+    public record KeySpace(long fixedMask, long fixedValue) {
+
+        public KeySpace {
+            fixedMask &= ~PARITY_BITS;
+            fixedValue &= fixedMask;
+        }
+
+        /** усі 2^56 ключів */
+        public static KeySpace all() {
+            return new KeySpace(0, 0);
+        }
+
+        /**
+         * відомі перші knownBits значущих бітів ключа (у порядку FIPS, від старшого);
+         * перебираються решта 56 - knownBits
+         */
+        public static KeySpace knownPrefix(long key, int knownBits) {
+            if (knownBits < 0 || knownBits > 56) throw new IllegalArgumentException("knownBits must be 0..56: " + knownBits);
+            long mask = 0;
+            for (int bit = 63, n = 0; n < knownBits; bit--) {
+                if ((PARITY_BITS >>> bit & 1) != 0) continue;
+                mask |= 1L << bit;
+                n++;
+            }
+            return new KeySpace(mask, key);
+        }
+
+        /** к-сть бітів, що перебираються */
+        public int freeBits() {
+            return 56 - Long.bitCount(fixedMask);
+        }
+
+        public long size() {
+            return 1L << freeBits();
+        }
+
+        //позиції вільних бітів, від молодшого
+        int[] freePositions() {
+            int[] pos = new int[freeBits()];
+            long free = ~fixedMask & ~PARITY_BITS;
+            for (int i = 0; i < pos.length; i++) {
+                pos[i] = Long.numberOfTrailingZeros(free);
+                free &= free - 1;
+            }
+            return pos;
+        }
+    }
+
+    /** знімок прогресу; keysThisRun - без ключів, перевірених до {@link #resume} */
+    public record Progress(long keysTested, long keysThisRun, long elapsedNanos, long totalKeys) {
+        public double keysPerSecond() {
+            return elapsedNanos == 0 ? 0 : keysThisRun / (elapsedNanos / 1e9);
+        }
+    }
+
+    private final KeySpace space;
+    private final List<Pair> pairs;
+    private final int threads;
+
+    //IP(P) і IP(C) пар - порівняння без IP^(-1) на кожному кандидаті
+    private final long[] ipPlain;
+    private final long[] ipCipher;
+
+    //внесок кожного вільного біта в 16 підключів: contrib[16 * j + r]
+    private final long[] contrib;
+    private final int[] freePos;
+
+    private final AtomicBoolean stop = new AtomicBoolean();
+    private final LongAdder tested = new LongAdder();
+    private final AtomicLong found = new AtomicLong();
+    private final AtomicBoolean foundFlag = new AtomicBoolean();
+
+    //усі частини до watermark завершено; завершені після неї чекають у completedAhead
+    private long watermark;
+    private final TreeSet<Long> completedAhead = new TreeSet<>();
+    private long testedBefore;
+    private volatile long startNanos;
+
+    private Path checkpointFile;
+    private long checkpointIntervalMs;
+    private Consumer<Progress> listener;
+    private long reportIntervalMs;
+
+    /**
+     * @param pairs відомі пари (зазвичай 2: з однією парою на повному просторі можливі хибні збіги)
+     */
+    public DESKeySearch(KeySpace space, List<Pair> pairs, int threads) {
+        if (pairs.isEmpty()) throw new IllegalArgumentException("at least one plaintext/ciphertext pair is required");
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1: " + threads);
+        this.space = space;
+        this.pairs = List.copyOf(pairs);
+        this.threads = threads;
+
+        ipPlain = new long[pairs.size()];
+        ipCipher = new long[pairs.size()];
+        for (int i = 0; i < ipPlain.length; i++) {
+            ipPlain[i] = FastDES.initialPermutation(pairs.get(i).plaintext());
+            ipCipher[i] = FastDES.initialPermutation(pairs.get(i).ciphertext());
+        }
+
+        freePos = space.freePositions();
+        contrib = new long[16 * freePos.length];
+        for (int j = 0; j < freePos.length; j++) {
+            System.arraycopy(DESKeySchedule.of(1L << freePos[j]).encryptKeys(), 0, contrib, 16 * j, 16);
+        }
+    }
+
+    /** періодично зберігати стан перебору у файл (і при завершенні/скасуванні) */
+    public DESKeySearch checkpointTo(Path file, long intervalMs) {
+        this.checkpointFile = file;
+        this.checkpointIntervalMs = intervalMs;
+        return this;
+    }
+
+    public DESKeySearch onProgress(Consumer<Progress> listener, long intervalMs) {
+        this.listener = listener;
+        this.reportIntervalMs = intervalMs;
+        return this;
+    }
+
+    /** зупиняє перебір; потоки завершуються протягом CHECK_INTERVAL ключів */
+    public void cancel() {
+        stop.set(true);
+    }
+
+    public Progress progress() {
+        long run = tested.sum();
+        return new Progress(testedBefore + run, run, System.nanoTime() - startNanos, space.size());
+    }
+
+    /**
+     * перебирає простір (або його залишок після {@link #resume})
+     *
+     * @return знайдений ключ з непарною парністю або порожньо (простір вичерпано чи скасовано)
+     */
+    public OptionalLong search() throws IOException {
+        stop.set(false);
+        startNanos = System.nanoTime();
+        long chunks = (space.size() + (1L << CHUNK_BITS) - 1) >>> CHUNK_BITS;
+        AtomicLong next = new AtomicLong(watermark);
+        //частини, завершені до збереження, пропускаються
+        TreeSet<Long> skip = new TreeSet<>(completedAhead);
+
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "des-key-search-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        if (listener != null) {
+            timer.scheduleAtFixedRate(() -> listener.accept(progress()), reportIntervalMs, reportIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        if (checkpointFile != null) {
+            timer.scheduleAtFixedRate(this::saveQuietly, checkpointIntervalMs, checkpointIntervalMs, TimeUnit.MILLISECONDS);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    long chunk;
+                    while (!stop.get() && (chunk = next.getAndIncrement()) < chunks) {
+                        if (skip.contains(chunk)) continue;
+                        long from = chunk << CHUNK_BITS;
+                        long to = Math.min(space.size(), from + (1L << CHUNK_BITS));
+                        if (searchRange(from, to)) completed(chunk);
+                    }
+                }));
+            }
+            for (Future<?> w : workers) w.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop.set(true);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+            timer.shutdownNow();
+        }
+
+        if (checkpointFile != null) save(checkpointFile);
+        return foundFlag.get() ? OptionalLong.of(found.get()) : OptionalLong.empty();
+    }
+
+    //перебір номерів [from, to) у порядку коду Грея; false - перервано до кінця частини
+    private boolean searchRange(long from, long to) {
+        long gray = from ^ (from >>> 1);
+        long key = space.fixedValue() | deposit(gray);
+        long[] k = DESKeySchedule.of(key).encryptKeys().clone();
+
+        long count = 0;
+        for (long i = from; ; ) {
+            if (matches(k)) {
+                found.set(withOddParity(key));
+                foundFlag.set(true);
+                stop.set(true);
+            }
+            if (++i == to) break;
+
+            //наступний код Грея відрізняється бітом номер tz(i)
+            int j = Long.numberOfTrailingZeros(i);
+            key ^= 1L << freePos[j];
+            int c = 16 * j;
+            for (int r = 0; r < 16; r++) k[r] ^= contrib[c + r];
+
+            if (++count == CHECK_INTERVAL) {
+                tested.add(count);
+                count = 0;
+                if (stop.get()) return false;
+            }
+        }
+        tested.add(count + 1);
+        return true;
+    }
+
+    //усі пари; 16-й раунд лише якщо R15 уже збігся з L16, наступна пара - лише після збігу попередньої
+    private boolean matches(long[] k) {
+        for (int p = 0; p < ipPlain.length; p++) {
+            int l = (int) (ipPlain[p] >>> 32);
+            int r = (int) ipPlain[p];
+            for (int i = 0; i < 14; i += 2) {
+                l ^= FastDES.f(r, k[i]);
+                r ^= FastDES.f(l, k[i + 1]);
+            }
+            l ^= FastDES.f(r, k[14]);                      //l = R15 = L16
+            if (l != (int) ipCipher[p]) return false;
+            r ^= FastDES.f(l, k[15]);                      //r = R16
+            if (r != (int) (ipCipher[p] >>> 32)) return false;
+        }
+        return true;
+    }
+
+    //розкладає біти номера по вільних позиціях ключа
+    private long deposit(long bits) {
+        long key = 0;
+        for (int j = 0; bits != 0; j++, bits >>>= 1) {
+            if ((bits & 1) != 0) key |= 1L << freePos[j];
+        }
+        return key;
+    }
+
+    static long withOddParity(long key) {
+        long out = key & ~PARITY_BITS;
+        for (int b = 0; b < 64; b += 8) {
+            if ((Long.bitCount(out >>> b & 0xFE) & 1) == 0) out |= 1L << b;
+        }
+        return out;
+    }
+
+    private synchronized void completed(long chunk) {
+        if (chunk != watermark) {
+            completedAhead.add(chunk);
+            return;
+        }
+        watermark++;
+        while (completedAhead.remove(watermark)) watermark++;
+    }
+
+    // -- збереження і продовження
+
+    /**
+     * зберігає простір, пари і завершені частини; запис через тимчасовий файл і атомарне перейменування
+     */
+    public synchronized void save(Path file) throws IOException {
+        Properties p = new Properties();
+        p.setProperty("fixedMask", Long.toHexString(space.fixedMask()));
+        p.setProperty("fixedValue", Long.toHexString(space.fixedValue()));
+        StringBuilder sb = new StringBuilder();
+        for (Pair pair : pairs) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(Long.toHexString(pair.plaintext())).append(':').append(Long.toHexString(pair.ciphertext()));
+        }
+        p.setProperty("pairs", sb.toString());
+        p.setProperty("chunkBits", Integer.toString(CHUNK_BITS));
+        p.setProperty("watermark", Long.toString(watermark));
+        StringBuilder ahead = new StringBuilder();
+        for (long c : completedAhead) ahead.append(ahead.length() > 0 ? "," : "").append(c);
+        p.setProperty("completedAhead", ahead.toString());
+        p.setProperty("keysTested", Long.toString(testedBefore + tested.sum()));
+        if (foundFlag.get()) p.setProperty("found", Long.toHexString(found.get()));
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer w = Files.newBufferedWriter(tmp)) {
+            p.store(w, "DES key search checkpoint");
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void saveQuietly() {
+        try {
+            save(checkpointFile);
+        } catch (IOException e) {
+            System.err.println("checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * відновлює перебір зі збереженого стану; продовжує з першої незавершеної частини
+     */
+    public static DESKeySearch resume(Path file, int threads) throws IOException {
+        Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(file)) {
+            p.load(r);
+        }
+        if (Integer.parseInt(p.getProperty("chunkBits")) != CHUNK_BITS)
+            throw new IOException("checkpoint was written with a different chunk size");
+
+        List<Pair> pairs = new ArrayList<>();
+        for (String s : p.getProperty("pairs").split(",")) {
+            String[] pc = s.split(":");
+            pairs.add(new Pair(Long.parseUnsignedLong(pc[0], 16), Long.parseUnsignedLong(pc[1], 16)));
+        }
+        KeySpace space = new KeySpace(Long.parseUnsignedLong(p.getProperty("fixedMask"), 16),
+                Long.parseUnsignedLong(p.getProperty("fixedValue"), 16));
+
+        DESKeySearch search = new DESKeySearch(space, pairs, threads);
+        search.watermark = Long.parseLong(p.getProperty("watermark"));
+        for (String c : p.getProperty("completedAhead", "").split(",")) {
+            if (!c.isEmpty()) search.completedAhead.add(Long.parseLong(c));
+        }
+        search.testedBefore = Long.parseLong(p.getProperty("keysTested", "0"));
+        return search.checkpointTo(file, 10_000);
+    }
+
+    /**
+     * запуск:
+     * <pre>
+     *   java DESKeySearch &lt;ключ-hex&gt; &lt;невідомих бітів&gt; [файл стану]   - демонстрація на власному ключі
+     *   java DESKeySearch --resume &lt;файл стану&gt;
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java DESKeySearch <key-hex> <unknown-bits> [checkpoint-file]");
+            System.err.println("       java DESKeySearch --resume <checkpoint-file>");
+            System.exit(1);
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        DESKeySearch search;
+        if (args[0].equals("--resume")) {
+            search = resume(Paths.get(args[1]), threads);
+        } else {
+            long key = Long.parseUnsignedLong(args[0], 16);
+            int unknown = Integer.parseInt(args[1]);
+            int[][] subkeys = DES.generateSubkeys(key);
+            List<Pair> pairs = List.of(
+                    new Pair(0x0123456789ABCDEFL, DES.encrypt(0x0123456789ABCDEFL, subkeys)),
+                    new Pair(0x1122334455667788L, DES.encrypt(0x1122334455667788L, subkeys)));
+            search = new DESKeySearch(KeySpace.knownPrefix(key, 56 - unknown), pairs, threads);
+            if (args.length > 2) search.checkpointTo(Paths.get(args[2]), 10_000);
+        }
+        search.onProgress(p -> System.err.printf("  %,d / %,d keys, %,.0f keys/s%n",
+                p.keysTested(), p.totalKeys(), p.keysPerSecond()), 1000);
+
+        //Ctrl+C: зупинити потоки і зберегти стан, щоб продовжити через --resume
+        DESKeySearch running = search;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            running.cancel();
+            if (running.checkpointFile != null) running.saveQuietly();
+        }));
+
+        OptionalLong key = search.search();
+        Progress p = search.progress();
+        System.out.println(key.isPresent() ? String.format("key: %016x", key.getAsLong()) : "key not found");
+        System.err.printf("%,d keys in %.2f s (%,.0f keys/s) on %d threads%n",
+                p.keysThisRun(), p.elapsedNanos() / 1e9, p.keysPerSecond(), threads);
+    }
+}
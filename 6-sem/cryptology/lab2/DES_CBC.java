@@ -0,0 +1,52 @@
+/**
+ * режим зчеплення блоків (CBC): C(i) = E(K, M(i) XOR C(i-1)), C(0) = E(K, M(0) XOR IV).
+ * <p>
+ * шифрування послідовне за визначенням, а розшифрування M(i) = D(K, C(i)) XOR C(i-1)
+ * залежить лише від шифротексту, тож ділиться між ядрами: перед паралельним проходом
+ * запам'ятовується останній блок шифротексту перед кожною частиною, а частина обробляється
+ * з кінця, щоб C(i-1) ще не був перезаписаний
+ */
+public class DES_CBC implements CipherMode {
+
+    private final BlockCipher cipher;
+
+    public DES_CBC(long key) {
+        this(new FastDES(DESKeySchedule.cached(key)));
+    }
+
+    public DES_CBC(BlockCipher cipher) {
+        this.cipher = cipher;
+    }
+
+    @Override
+    public void encrypt(byte[] data, int off, int len, long iv) {
+        Blocks.checkRange(data, off, len);
+        Blocks.checkWholeBlocks(len);
+        long prev = iv;
+        for (int p = off; p < off + len; p += 8) {
+            prev = cipher.encrypt((long) Blocks.BE_LONG.get(data, p) ^ prev);
+            Blocks.BE_LONG.set(data, p, prev);
+        }
+    }
+
+    @Override
+    public void decrypt(byte[] data, int off, int len, long iv) {
+        Blocks.checkRange(data, off, len);
+        Blocks.checkWholeBlocks(len);
+
+        //C(i-1) для першого блоку кожної частини - до того, як його перезапише сусідня частина
+        long[] before = new long[Blocks.slices(len)];
+        before[0] = iv;
+        for (int s = 1; s < before.length; s++) {
+            before[s] = (long) Blocks.BE_LONG.get(data, off + s * Blocks.SLICE - 8);
+        }
+
+        Blocks.forEachSlice(len, (from, to) -> {
+            int first = off + from;
+            for (int p = off + to - 8; p >= first; p -= 8) {
+                long prev = p == first ? before[from / Blocks.SLICE] : (long) Blocks.BE_LONG.get(data, p - 8);
+                Blocks.BE_LONG.set(data, p, cipher.decrypt((long) Blocks.BE_LONG.get(data, p)) ^ prev);
+            }
+        });
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * режим лічильника (CTR): блок keystream i = E(K, IV + i), C = M XOR keystream.
+ * <p>
+ * на відміну від OFB, блоки keystream незалежні, тож великий буфер ділиться між ядрами,
+ * а будь-який діапазон шифротексту розшифровується без обробки попередніх байтів
+ * ({@link #process(byte[], int, int, long, long)}). лічильник - усі 64 біти блоку (IV + i mod 2^64)
+ */
+public class DES_CTR implements CipherMode {
+
+    private final BlockCipher cipher;
+
+    public DES_CTR(long key) {
+        this(new FastDES(DESKeySchedule.cached(key)));
+    }
+
+    public DES_CTR(BlockCipher cipher) {
+        this.cipher = cipher;
+    }
+
+    @Override
+    public void encrypt(byte[] data, int off, int len, long iv) {
+        process(data, off, len, iv, 0);
+    }
+
+    @Override
+    public void decrypt(byte[] data, int off, int len, long iv) {
+        process(data, off, len, iv, 0);
+    }
+
+    /**
+     * шифрує/розшифровує на місці байти потоку [position, position + len), що лежать у data[off..]
+     *
+     * @param position зсув першого байта від початку повідомлення
+     */
+    public void process(byte[] data, int off, int len, long iv, long position) {
+        Blocks.checkRange(data, off, len);
+        if (position < 0) throw new IllegalArgumentException("position must be >= 0: " + position);
+        Blocks.forEachSlice(len, (from, to) -> xorKeystream(data, off + from, to - from, iv, position + from));
+    }
+
+    private void xorKeystream(byte[] data, int off, int len, long iv, long position) {
+        long counter = iv + (position >>> 3);
+        int used = (int) (position & 7);
+        int end = off + len;
+
+        //неповний перший блок при довільному зсуві
+        if (used != 0 && off < end) {
+            long ks = cipher.encrypt(counter++);
+            while (used < 8 && off < end) data[off++] ^= (byte) (ks >>> (56 - 8 * used++));
+        }
+        //повні блоки: лічильники групами по Blocks.BATCH, шифр обробляє групу разом
+        long[] batch = new long[Math.min(Blocks.BATCH, (end - off) >>> 3)];
+        while (end - off >= 8) {
+            int n = Math.min(Blocks.BATCH, (end - off) >>> 3);
+            for (int i = 0; i < n; i++) batch[i] = counter++;
+            cipher.encryptBlocks(batch, 0, n);
+            for (int i = 0; i < n; i++, off += 8) {
+                Blocks.BE_LONG.set(data, off, (long) Blocks.BE_LONG.get(data, off) ^ batch[i]);
+            }
+        }
+        if (off < end) {
+            long ks = cipher.encrypt(counter);
+            for (int i = 0; off < end; i++) data[off++] ^= (byte) (ks >>> (56 - 8 * i));
+        }
+    }
+}
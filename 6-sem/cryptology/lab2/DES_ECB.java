@@ -0,0 +1,46 @@
+/**
+ * режим простої заміни (ECB): кожен блок шифрується незалежно, тому великий буфер
+ * ділиться між ядрами. однакові блоки відкритого тексту дають однакові блоки шифротексту -
+ * для даних зі структурою режим непридатний, лишається для сумісності і тестів
+ */
+public class DES_ECB implements CipherMode {
+
+    private final BlockCipher cipher;
+
+    public DES_ECB(long key) {
+        this(new FastDES(DESKeySchedule.cached(key)));
+    }
+
+    public DES_ECB(BlockCipher cipher) {
+        this.cipher = cipher;
+    }
+
+    /** iv ігнорується */
+    @Override
+    public void encrypt(byte[] data, int off, int len, long iv) {
+        Blocks.checkRange(data, off, len);
+        Blocks.checkWholeBlocks(len);
+        Blocks.forEachSlice(len, (from, to) -> crypt(data, off + from, off + to, true));
+    }
+
+    /** iv ігнорується */
+    @Override
+    public void decrypt(byte[] data, int off, int len, long iv) {
+        Blocks.checkRange(data, off, len);
+        Blocks.checkWholeBlocks(len);
+        Blocks.forEachSlice(len, (from, to) -> crypt(data, off + from, off + to, false));
+    }
+
+    //блоки data[from..to) групами по Blocks.BATCH - шифр може обробити групу разом
+    private void crypt(byte[] data, int from, int to, boolean encrypt) {
+        long[] batch = new long[Math.min(Blocks.BATCH, (to - from) >>> 3)];
+        for (int p = from; p < to; ) {
+            int n = Math.min(Blocks.BATCH, (to - p) >>> 3);
+            for (int i = 0; i < n; i++) batch[i] = (long) Blocks.BE_LONG.get(data, p + 8 * i);
+            if (encrypt) cipher.encryptBlocks(batch, 0, n);
+            else cipher.decryptBlocks(batch, 0, n);
+            for (int i = 0; i < n; i++) Blocks.BE_LONG.set(data, p + 8 * i, batch[i]);
+            p += 8 * n;
+        }
+    }
+}
@@ -1,15 +1,28 @@
 import java.nio.charset.StandardCharsets;
 
 
-public class DES_OFB {
+public class DES_OFB implements CipherMode {
 
-    private final int[][] subkeys;
+    //к-сть записів на одну задачу пакетної обробки
+    private static final int BATCH_GRAIN = 4096;
+
+    private final BlockCipher des;
 
     /**
      * @param key 64-бітний DES-ключ (реально 56 значущих біт)
      */
     public DES_OFB(long key) {
-        this.subkeys = DES.generateSubkeys(key);
+        this(DESKeySchedule.cached(key));
+    }
+
+    /** шифр на вже розгорнутому ключі */
+    public DES_OFB(DESKeySchedule schedule) {
+        this(new FastDES(schedule));
+    }
+
+    /** OFB над довільним 64-бітним блоковим шифром */
+    public DES_OFB(BlockCipher cipher) {
+        this.des = cipher;
     }
 
     //генерація keystream і XOR із даними
@@ -23,23 +36,102 @@ public class DES_OFB {
      * @return результат
      */
     public byte[] process(byte[] data, long ivLong) {
-        byte[] result = new byte[data.length];
-        long O = ivLong;       // поточний блок keystream (починаємо з IV)
-        int done = 0;
+        byte[] result = data.clone();
+        keystream(ivLong).xor(result, 0, result.length);
+        return result;
+    }
+
+    /** OFB на місці; шифрування і розшифрування - одна операція */
+    @Override
+    public void encrypt(byte[] data, int off, int len, long iv) {
+        keystream(iv).xor(data, off, len);
+    }
+
+    @Override
+    public void decrypt(byte[] data, int off, int len, long iv) {
+        keystream(iv).xor(data, off, len);
+    }
 
-        while (done < data.length) {
-            //O(i) — генеруємо наступний блок потоку
-            O = DES.encrypt(O, subkeys);
-            byte[] keystreamBlock = longToBytes(O);
+    /**
+     * пакетна обробка багатьох коротких записів з власними IV на місці:
+     * запис i - байти buffer[offsets[i], offsets[i+1]), його IV - ivs[i].
+     * жодних рядків, проміжних масивів чи об'єктів keystream на запис
+     *
+     * @param offsets межі записів, ivs.length + 1 значень за зростанням
+     * @param parallel розділити записи між ядрами (ForkJoin)
+     */
+    public void processBatch(byte[] buffer, int[] offsets, long[] ivs, boolean parallel) {
+        if (offsets.length != ivs.length + 1)
+            throw new IllegalArgumentException("need ivs.length + 1 offsets: " + offsets.length + " for " + ivs.length + " records");
+        for (int i = 0; i < ivs.length; i++) {
+            if (offsets[i] < 0 || offsets[i] > offsets[i + 1] || offsets[i + 1] > buffer.length)
+                throw new IndexOutOfBoundsException("record " + i + ": [" + offsets[i] + ", " + offsets[i + 1] + ")");
+        }
 
-            //XOR keystream із даними (до 8 байт за раз)
-            int blockLen = Math.min(8, data.length - done);
-            for (int i = 0; i < blockLen; i++)
-                result[done + i] = (byte)(data[done + i] ^ keystreamBlock[i]);
+        Blocks.RangeOp records = (from, to) -> {
+            for (int i = from; i < to; i++) xorRecord(buffer, offsets[i], offsets[i + 1], ivs[i]);
+        };
+        if (parallel) {
+            Blocks.forEachRange(ivs.length, BATCH_GRAIN, records);
+        } else {
+            records.apply(0, ivs.length);
+        }
+    }
 
-            done += blockLen;
+    public void processBatch(byte[] buffer, int[] offsets, long[] ivs) {
+        processBatch(buffer, offsets, ivs, false);
+    }
+
+    //один запис: keystream від IV, повні блоки - по 8 байт за раз
+    private void xorRecord(byte[] buffer, int from, int to, long iv) {
+        long o = iv;
+        int p = from;
+        for (; to - p >= 8; p += 8) {
+            o = des.encrypt(o);
+            Blocks.BE_LONG.set(buffer, p, (long) Blocks.BE_LONG.get(buffer, p) ^ o);
         }
-        return result;
+        if (p < to) {
+            o = des.encrypt(o);
+            for (int i = 0; p < to; i++) buffer[p++] ^= (byte) (o >>> (56 - 8 * i));
+        }
+    }
+
+    /**
+     * keystream, що починається з IV: для потокової обробки частинами
+     * ({@link OFBInputStream}, {@link OFBOutputStream}, {@link OFBChannels})
+     */
+    public OFBKeystream keystream(long ivLong) {
+        return new OFBKeystream(des, ivLong);
+    }
+
+    /**
+     * keystream, що під час роботи записує контрольні точки у checkpoints
+     * (порожній індекс з обраним інтервалом), для подальшого {@link #decryptRange}
+     */
+    public OFBKeystream keystream(long ivLong, OFBCheckpoints checkpoints) {
+        return new OFBKeystream(des, ivLong, checkpoints);
+    }
+
+    /**
+     * розшифровує (шифрує) на місці байти потоку [position, position + len), що лежать у data[off..],
+     * починаючи з найближчої контрольної точки індексу
+     */
+    public void decryptRange(byte[] data, int off, int len, OFBCheckpoints index, long position) {
+        index.keystreamAt(des, position).xor(data, off, len);
+    }
+
+    /** keystream, встановлений на байт position, - для потокового читання діапазону */
+    public OFBKeystream keystreamAt(OFBCheckpoints index, long position) {
+        return index.keystreamAt(des, position);
+    }
+
+    /**
+     * перевикористовуваний буфер поза купою для keystream, обчисленого наперед
+     *
+     * @param capacity початкова місткість у байтах (збільшується за потреби)
+     */
+    public OFBKeystreamBuffer keystreamBuffer(int capacity) {
+        return new OFBKeystreamBuffer(des, capacity);
     }
 
 
@@ -57,20 +149,13 @@ public class DES_OFB {
 
     //допоміжні методи перетворення даних
 
-    /** long -> 8 байт (big-endian) */
-    private static byte[] longToBytes(long v) {
-        byte[] b = new byte[8];
-        for (int i = 7; i >= 0; i--) {
-            b[i] = (byte)(v & 0xFF);
-            v >>>= 8;
-        }
-        return b;
-    }
     /** байти -> hex-рядок для виведення */
     public static String toHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes)
-            sb.append(String.format("%02x", b & 0xFF));
-        return sb.toString();
+        return Hex.encode(bytes);
+    }
+
+    /** hex-рядок (напр. збережений шифротекст) -> байти */
+    public static byte[] fromHex(String hex) {
+        return Hex.decode(hex);
     }
 }
\ No newline at end of file
@@ -1,4 +1,23 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class DES_OFBTest {
@@ -57,6 +76,457 @@ public class DES_OFBTest {
         assertNotEquals(originalBlock, encryptedBlock, "Зашифрований блок не повинен дорівнювати відкритому");
     }
 
+    @Test
+    public void testFastDesMatchesReference() {
+        // вектор FIPS 81 / методички і випадкові ключі та блоки: FastDES має давати ті самі біти, що й DES
+        assertEquals(0x85E813540F0AB405L, new FastDES(DEFAULT_KEY).encrypt(0x0123456789ABCDEFL), "Вектор FIPS не збігається");
+
+        SplittableRandom rnd = new SplittableRandom(2024);
+        for (int i = 0; i < 500; i++) {
+            long key = rnd.nextLong();
+            long block = rnd.nextLong();
+            int[][] subkeys = DES.generateSubkeys(key);
+            FastDES fast = new FastDES(key);
+
+            assertEquals(DES.encrypt(block, subkeys), fast.encrypt(block), "Шифрування розходиться з DES");
+            assertEquals(DES.decrypt(block, subkeys), fast.decrypt(block), "Розшифрування розходиться з DES");
+        }
+    }
+
+    @Test
+    public void testKeyScheduleMatchesReference() {
+        // упаковані підключі збігаються з бітовими з DES.generateSubkeys, розшифрування - у зворотному порядку
+        SplittableRandom rnd = new SplittableRandom(11);
+        for (int i = 0; i < 200; i++) {
+            long key = rnd.nextLong();
+            long[] reference = FastDES.packSubkeys(DES.generateSubkeys(key));
+            DESKeySchedule schedule = DESKeySchedule.of(key);
+            for (int r = 0; r < 16; r++) {
+                assertEquals(reference[r], schedule.subkey(r), "Підключ " + r + " не збігається");
+                assertEquals(reference[15 - r], schedule.decryptKeys()[r], "Порядок розшифрування хибний");
+            }
+        }
+    }
+
+    @Test
+    public void testKeyScheduleCacheEvictsLeastRecentlyUsed() {
+        // кеш на два ключі: повторний ключ береться з кешу, а новий витісняє той,
+        // до якого найдовше не звертались
+        DESKeySchedule.Cache cache = new DESKeySchedule.Cache(2);
+        DESKeySchedule a = cache.get(1L);
+        cache.get(2L);
+        assertSame(a, cache.get(1L), "Повторний ключ має братися з кешу");
+        cache.get(3L);   // витісняє 2, бо до 1 щойно звертались
+
+        assertEquals(2, cache.size());
+        assertSame(a, cache.get(1L));
+        assertEquals(2, cache.hits());
+        assertEquals(3, cache.misses());
+
+        cache.get(2L);
+        assertEquals(4, cache.misses(), "Ключ 2 мав бути витіснений");
+    }
+
+    @Test
+    public void testStreamingMatchesProcess() throws IOException {
+        // потоки і канали, що отримують дані шматками різних розмірів, дають той самий шифротекст
+        DES_OFB cipher = new DES_OFB(DEFAULT_KEY);
+        byte[] plain = new byte[1000];
+        for (int i = 0; i < plain.length; i++) plain[i] = (byte) (i * 7 + 3);
+        byte[] expected = cipher.process(plain, DEFAULT_IV);
+
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (OFBOutputStream out = new OFBOutputStream(sink, cipher.keystream(DEFAULT_IV))) {
+            out.write(plain, 0, 3);
+            out.write(plain[3]);
+            out.write(plain, 4, 500);
+            out.write(plain, 504, plain.length - 504);
+        }
+        assertArrayEquals(expected, sink.toByteArray(), "OFBOutputStream розходиться з process");
+
+        try (OFBInputStream in = new OFBInputStream(new ByteArrayInputStream(expected), cipher.keystream(DEFAULT_IV))) {
+            assertArrayEquals(plain, in.readAllBytes(), "OFBInputStream має розшифровувати");
+        }
+
+        // read() по байту і skip() теж зсувають keystream; від'ємний skip нічого не робить
+        try (OFBInputStream in = new OFBInputStream(new ByteArrayInputStream(expected), cipher.keystream(DEFAULT_IV))) {
+            assertEquals(plain[0] & 0xFF, in.read());
+            assertEquals(0, in.skip(-5));
+            assertEquals(0, in.skip(0));
+            assertEquals(99, in.skip(99));
+            assertEquals(plain[100] & 0xFF, in.read());
+        }
+
+        var reading = OFBChannels.reading(Channels.newChannel(new ByteArrayInputStream(plain)),
+                cipher.keystream(DEFAULT_IV));
+        ByteBuffer direct = ByteBuffer.allocateDirect(13);
+        ByteBuffer collected = ByteBuffer.allocate(plain.length);
+        while (reading.read(direct) != -1) {
+            collected.put(direct.flip());
+            direct.clear();
+        }
+        assertArrayEquals(expected, collected.array(), "Канал читання розходиться з process");
+
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        var writing = OFBChannels.writing(Channels.newChannel(written), cipher.keystream(DEFAULT_IV));
+        for (int off = 0; off < plain.length; off += 77) {
+            writing.write(ByteBuffer.wrap(plain.clone(), off, Math.min(77, plain.length - off)));
+        }
+        assertArrayEquals(expected, written.toByteArray(), "Канал запису розходиться з process");
+    }
+
+    @Test
+    public void testPrecomputedKeystream() {
+        // keystream, обчислений наперед (синхронно і у фоні), дає той самий шифротекст;
+        // 3 MiB + 5 байт - паралельний XOR з неповним останнім блоком
+        DES_OFB cipher = new DES_OFB(DEFAULT_KEY);
+        byte[] plain = new byte[3 * (1 << 20) + 5];
+        for (int i = 0; i < plain.length; i++) plain[i] = (byte) (i ^ (i >>> 9));
+        byte[] expected = cipher.process(plain, DEFAULT_IV);
+
+        try (OFBKeystreamBuffer keystream = cipher.keystreamBuffer(64)) {
+            keystream.prepare(DEFAULT_IV, 13);
+            byte[] small = Arrays.copyOf(plain, 13);
+            keystream.xor(small, 0, small.length);
+            assertArrayEquals(Arrays.copyOf(expected, 13), small, "Короткий XOR розходиться з process");
+
+            keystream.prepareAsync(DEFAULT_IV, plain.length);
+            byte[] data = plain.clone();
+            keystream.xor(data, 0, data.length);
+            assertArrayEquals(expected, data, "Паралельний XOR розходиться з process");
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(plain.length).put(plain).flip();
+            keystream.xor(direct);
+            byte[] fromDirect = new byte[plain.length];
+            direct.flip().get(fromDirect);
+            assertArrayEquals(expected, fromDirect, "XOR у direct-буфері розходиться з process");
+
+            assertThrows(IllegalStateException.class, () -> keystream.xor(new byte[plain.length + 1], 0, plain.length + 1));
+
+            assertThrows(IllegalArgumentException.class, () -> keystream.prepareAsync(DEFAULT_IV, -1));
+            assertEquals(plain.length, keystream.length(), "Хибна довжина не повинна псувати буфер");
+        }
+    }
+
+    @Test
+    public void testKeystreamBufferRecoversFromFailedFill() {
+        // невдале фонове заповнення повідомляється один раз (future і перший xor),
+        // після чого буфер порожній і знову готовий до prepare
+        DES_OFB cipher = new DES_OFB(DEFAULT_KEY);
+        AtomicBoolean fail = new AtomicBoolean(true);
+        BlockCipher flaky = new BlockCipher() {
+            @Override
+            public long encrypt(long block) {
+                if (fail.get()) throw new IllegalStateException("engine failure");
+                return new FastDES(DEFAULT_KEY).encrypt(block);
+            }
+
+            @Override
+            public long decrypt(long block) {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        try (OFBKeystreamBuffer keystream = new OFBKeystreamBuffer(flaky, 64)) {
+            var failed = keystream.prepareAsync(DEFAULT_IV, 64);
+            assertThrows(CompletionException.class, failed::join);
+            assertThrows(IllegalStateException.class, () -> keystream.xor(new byte[8], 0, 8));
+            assertEquals(0, keystream.length());
+
+            fail.set(false);
+            keystream.prepareAsync(DEFAULT_IV, 16);
+            byte[] data = new byte[16];
+            keystream.xor(data, 0, data.length);
+            assertArrayEquals(cipher.process(new byte[16], DEFAULT_IV), data, "Після збою keystream має працювати");
+        }
+    }
+
+    @Test
+    public void testKeystreamBufferCloseAndOversizedLength() throws Exception {
+        // close() скасовує незавершене фонове заповнення: future не зависає, а буфер далі кидає
+        // IllegalStateException; довжина понад MAX_LENGTH - IllegalArgumentException без переповнення
+        CountDownLatch release = new CountDownLatch(1);
+        BlockCipher stuck = new BlockCipher() {
+            @Override
+            public long encrypt(long block) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return block;
+            }
+
+            @Override
+            public long decrypt(long block) {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        OFBKeystreamBuffer keystream = new OFBKeystreamBuffer(stuck, 64);
+        for (int bad : new int[] {-1, OFBKeystreamBuffer.MAX_LENGTH + 1, Integer.MAX_VALUE}) {
+            assertThrows(IllegalArgumentException.class, () -> keystream.prepareAsync(DEFAULT_IV, bad), "Довжина " + bad);
+        }
+        var pending = keystream.prepareAsync(DEFAULT_IV, 64);
+        keystream.close();
+        assertTrue(pending.isDone(), "close() має завершити незавершене заповнення");
+        assertThrows(CancellationException.class, pending::join);
+        assertThrows(IllegalStateException.class, keystream::length);
+        assertThrows(IllegalStateException.class, () -> keystream.xor(new byte[8], 0, 8));
+        assertThrows(IllegalStateException.class, () -> keystream.prepare(DEFAULT_IV, 8));
+        release.countDown();
+    }
+
+    @Test
+    public void testModesMatchReferenceLoops() {
+        // ECB, CBC і CTR на буфері 2 MiB + 16 (паралельний шлях) проти послідовних циклів на еталонному DES
+        int[][] subkeys = DES.generateSubkeys(DEFAULT_KEY);
+        byte[] plain = new byte[2 * (1 << 20) + 16];
+        for (int i = 0; i < plain.length; i++) plain[i] = (byte) (i * 13 + (i >>> 8));
+        ByteBuffer in = ByteBuffer.wrap(plain);
+
+        ByteBuffer ecb = ByteBuffer.allocate(plain.length);
+        ByteBuffer cbc = ByteBuffer.allocate(plain.length);
+        ByteBuffer ctr = ByteBuffer.allocate(plain.length);
+        long prev = DEFAULT_IV;
+        // еталонний DES повільний, тому перевіряються перші й останні 64 блоки, решта - через FastDES
+        FastDES fast = new FastDES(DEFAULT_KEY);
+        for (int i = 0; i < plain.length / 8; i++) {
+            boolean reference = i < 64 || i >= plain.length / 8 - 64;
+            long m = in.getLong(8 * i);
+            ecb.putLong(8 * i, reference ? DES.encrypt(m, subkeys) : fast.encrypt(m));
+            prev = reference ? DES.encrypt(m ^ prev, subkeys) : fast.encrypt(m ^ prev);
+            cbc.putLong(8 * i, prev);
+            ctr.putLong(8 * i, m ^ (reference ? DES.encrypt(DEFAULT_IV + i, subkeys) : fast.encrypt(DEFAULT_IV + i)));
+        }
+
+        CipherMode[] modes = {new DES_ECB(DEFAULT_KEY), new DES_CBC(DEFAULT_KEY), new DES_CTR(DEFAULT_KEY)};
+        byte[][] expected = {ecb.array(), cbc.array(), ctr.array()};
+        for (int m = 0; m < modes.length; m++) {
+            byte[] data = plain.clone();
+            modes[m].encrypt(data, 0, data.length, DEFAULT_IV);
+            assertArrayEquals(expected[m], data, modes[m].getClass().getName() + ": шифротекст розходиться");
+            modes[m].decrypt(data, 0, data.length, DEFAULT_IV);
+            assertArrayEquals(plain, data, modes[m].getClass().getName() + ": розшифрування розходиться");
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new DES_CBC(DEFAULT_KEY).encrypt(new byte[12], 0, 12, DEFAULT_IV),
+                "CBC без доповнення приймає лише цілі блоки");
+    }
+
+    @Test
+    public void testBitslicedMatchesFastDes() {
+        // вектор FIPS, 200 випадкових блоків (неповна остання група з 64) і режими ECB/CTR з довільним зсувом
+        assertEquals(0x85E813540F0AB405L, new BitslicedDES(DEFAULT_KEY).encrypt(0x0123456789ABCDEFL), "Вектор FIPS не збігається");
+
+        SplittableRandom rnd = new SplittableRandom(19);
+        for (int k = 0; k < 5; k++) {
+            long key = rnd.nextLong();
+            FastDES fast = new FastDES(key);
+            BitslicedDES sliced = new BitslicedDES(key);
+            long[] blocks = rnd.longs(200).toArray();
+            long[] data = blocks.clone();
+            sliced.encryptBlocks(data, 0, data.length);
+            for (int i = 0; i < blocks.length; i++) assertEquals(fast.encrypt(blocks[i]), data[i], "Блок " + i);
+            sliced.decryptBlocks(data, 0, data.length);
+            assertArrayEquals(blocks, data, "Розшифрування має повертати відкритий текст");
+        }
+
+        byte[] plain = new byte[8 * 1000 + 5];
+        rnd.nextBytes(plain);
+        byte[] expected = plain.clone();
+        byte[] actual = plain.clone();
+        new DES_CTR(DEFAULT_KEY).process(expected, 3, plain.length - 3, DEFAULT_IV, 11);
+        new DES_CTR(new BitslicedDES(DEFAULT_KEY)).process(actual, 3, plain.length - 3, DEFAULT_IV, 11);
+        assertArrayEquals(expected, actual, "CTR розходиться");
+
+        expected = Arrays.copyOf(plain, 8000);
+        actual = expected.clone();
+        new DES_ECB(DEFAULT_KEY).encrypt(expected, 0, 8000, 0);
+        new DES_ECB(new BitslicedDES(DEFAULT_KEY)).encrypt(actual, 0, 8000, 0);
+        assertArrayEquals(expected, actual, "ECB розходиться");
+    }
+
+    @Test
+    public void testCtrRandomAccess() {
+        // довільний діапазон шифротексту CTR розшифровується без попередніх байтів
+        DES_CTR ctr = new DES_CTR(DEFAULT_KEY);
+        byte[] plain = "Random access into CTR ciphertext works at any byte offset.".getBytes(StandardCharsets.UTF_8);
+        byte[] cipherText = plain.clone();
+        ctr.encrypt(cipherText, 0, cipherText.length, DEFAULT_IV);
+
+        for (int from = 0; from < plain.length; from += 5) {
+            int len = Math.min(11, plain.length - from);
+            byte[] part = Arrays.copyOfRange(cipherText, from, from + len);
+            ctr.process(part, 0, len, DEFAULT_IV, from);
+            assertArrayEquals(Arrays.copyOfRange(plain, from, from + len), part, "Діапазон з " + from);
+        }
+
+        // OFB реалізує той самий інтерфейс режиму
+        CipherMode ofb = new DES_OFB(DEFAULT_KEY);
+        byte[] data = "Hello!".getBytes(StandardCharsets.UTF_8);
+        ofb.encrypt(data, 0, data.length, DEFAULT_IV);
+        assertEquals("d97e5736bf86", DES_OFB.toHex(data));
+    }
+
+    @Test
+    public void testTripleDes() {
+        // приклад з NIST SP 800-67 (3 ключі, ECB) і порівняння з трьома викликами еталонного DES
+        TripleDES tdes = new TripleDES(0x0123456789ABCDEFL, 0x23456789ABCDEF01L, 0x456789ABCDEF0123L);
+        byte[] data = "The qufck brown fox jump".getBytes(StandardCharsets.US_ASCII);
+        new DES_ECB(tdes).encrypt(data, 0, data.length, 0);
+        assertEquals("a826fd8ce53b855fcce21c8112256fe668d5c05dd9b6b900", DES_OFB.toHex(data), "Вектор SP 800-67 не збігається");
+
+        int[][] k1 = DES.generateSubkeys(DEFAULT_KEY);
+        int[][] k2 = DES.generateSubkeys(DEFAULT_IV);
+        TripleDES twoKey = new TripleDES(DEFAULT_KEY, DEFAULT_IV);
+        long block = 0x1122334455667788L;
+        long naive = DES.encrypt(DES.decrypt(DES.encrypt(block, k1), k2), k1);
+        assertEquals(naive, twoKey.encrypt(block), "2-ключовий 3DES розходиться з E-D-E на DES");
+        assertEquals(block, twoKey.decrypt(naive));
+
+        // K1 = K2 = K3 зводиться до одинарного DES; 3DES працює в OFB через BlockCipher
+        assertEquals(new FastDES(DEFAULT_KEY).encrypt(block), new TripleDES(DEFAULT_KEY, DEFAULT_KEY).encrypt(block));
+        DES_OFB ofb = new DES_OFB(tdes);
+        assertEquals("Today is sunny.", ofb.decrypt(ofb.encrypt("Today is sunny.", DEFAULT_IV), DEFAULT_IV));
+    }
+
+    @Test
+    public void testCheckpointRangeDecrypt() throws IOException {
+        // індекс записується під час потокового шифрування, зберігається і читається назад;
+        // діапазон розшифровується не більше ніж за K + len/8 + 1 викликів шифру
+        long[] calls = new long[1];
+        FastDES fast = new FastDES(DEFAULT_KEY);
+        DES_OFB cipher = new DES_OFB(new BlockCipher() {
+            @Override
+            public long encrypt(long block) {
+                calls[0]++;
+                return fast.encrypt(block);
+            }
+
+            @Override
+            public long decrypt(long block) {
+                return fast.decrypt(block);
+            }
+        });
+
+        byte[] plain = new byte[10_000];
+        for (int i = 0; i < plain.length; i++) plain[i] = (byte) (i * 31 + 7);
+        OFBCheckpoints recorded = new OFBCheckpoints(16);
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (OFBOutputStream out = new OFBOutputStream(sink, cipher.keystream(DEFAULT_IV, recorded))) {
+            for (int off = 0; off < plain.length; off += 333) out.write(plain, off, Math.min(333, plain.length - off));
+        }
+        byte[] cipherText = sink.toByteArray();
+        assertArrayEquals(cipher.process(plain, DEFAULT_IV), cipherText);
+        assertEquals((plain.length / 8 + 15) / 16, recorded.size(), "Контрольна точка на кожні 16 блоків");
+
+        ByteArrayOutputStream sidecar = new ByteArrayOutputStream();
+        recorded.write(sidecar);
+        OFBCheckpoints index = OFBCheckpoints.read(new ByteArrayInputStream(sidecar.toByteArray()));
+
+        for (int from : new int[] {0, 1, 127, 128, 5003, 9990}) {
+            int len = Math.min(40, plain.length - from);
+            byte[] part = Arrays.copyOfRange(cipherText, from, from + len);
+            calls[0] = 0;
+            cipher.decryptRange(part, 0, len, index, from);
+            assertArrayEquals(Arrays.copyOfRange(plain, from, from + len), part, "Діапазон з " + from);
+            assertTrue(calls[0] <= 16 + len / 8 + 1, "Забагато викликів шифру для зсуву " + from + ": " + calls[0]);
+        }
+    }
+
+    @Test
+    public void testCheckpointReadRejectsCorruptHeader() {
+        // пошкоджений заголовок індексу - IOException: інтервал 0, від'ємна к-сть,
+        // величезна к-сть без відповідних даних (без спроби виділити під неї пам'ять)
+        for (int[] header : new int[][] {{0, 1}, {-3, 1}, {16, -1}, {16, Integer.MAX_VALUE - 8}, {16, Integer.MAX_VALUE}}) {
+            ByteArrayOutputStream sidecar = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(sidecar);
+            assertDoesNotThrow(() -> {
+                data.writeInt(0x4F464258);
+                data.writeInt(header[0]);
+                data.writeInt(header[1]);
+                data.writeLong(42);
+            });
+            assertThrows(IOException.class,
+                    () -> OFBCheckpoints.read(new ByteArrayInputStream(sidecar.toByteArray())),
+                    "Заголовок " + Arrays.toString(header));
+        }
+    }
+
+    @Test
+    public void testBatchMatchesPerRecord() {
+        // 20 000 записів різної довжини (зокрема порожні) з власними IV - як окремі виклики process
+        DES_OFB cipher = new DES_OFB(DEFAULT_KEY);
+        SplittableRandom rnd = new SplittableRandom(17);
+        int n = 20_000;
+        int[] offsets = new int[n + 1];
+        long[] ivs = new long[n];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + rnd.nextInt(64);
+            ivs[i] = rnd.nextLong();
+        }
+        byte[] buffer = new byte[offsets[n]];
+        rnd.nextBytes(buffer);
+        byte[] original = buffer.clone();
+
+        for (boolean parallel : new boolean[] {false, true}) {
+            byte[] data = original.clone();
+            cipher.processBatch(data, offsets, ivs, parallel);
+            for (int i = 0; i < n; i += 97) {
+                byte[] record = Arrays.copyOfRange(original, offsets[i], offsets[i + 1]);
+                assertArrayEquals(cipher.process(record, ivs[i]), Arrays.copyOfRange(data, offsets[i], offsets[i + 1]),
+                        "Запис " + i + (parallel ? " (паралельно)" : ""));
+            }
+            cipher.processBatch(data, offsets, ivs, parallel);
+            assertArrayEquals(original, data, "Повторна обробка має повертати відкритий текст");
+        }
+        assertThrows(IllegalArgumentException.class, () -> cipher.processBatch(buffer, new int[n], ivs));
+    }
+
+    @Test
+    public void testKeySearchFindsKey() throws IOException {
+        // 18 невідомих бітів ключа, дві відомі пари; ключ порівнюється без бітів парності
+        int[][] subkeys = DES.generateSubkeys(DEFAULT_KEY);
+        List<DESKeySearch.Pair> pairs = List.of(
+                new DESKeySearch.Pair(0x0123456789ABCDEFL, DES.encrypt(0x0123456789ABCDEFL, subkeys)),
+                new DESKeySearch.Pair(DEFAULT_IV, DES.encrypt(DEFAULT_IV, subkeys)));
+        DESKeySearch.KeySpace space = DESKeySearch.KeySpace.knownPrefix(DEFAULT_KEY, 38);
+        assertEquals(1L << 18, space.size());
+
+        OptionalLong key = new DESKeySearch(space, pairs, 2).search();
+        assertTrue(key.isPresent(), "Ключ має знайтися");
+        assertEquals(DEFAULT_KEY & ~DESKeySearch.PARITY_BITS, key.getAsLong() & ~DESKeySearch.PARITY_BITS);
+        assertEquals(DESKeySearch.withOddParity(key.getAsLong()), key.getAsLong(), "Знайдений ключ має непарну парність");
+
+        // ключа з іншим значенням зафіксованих бітів у просторі немає
+        DESKeySearch.KeySpace wrong = DESKeySearch.KeySpace.knownPrefix(DEFAULT_KEY ^ (1L << 63), 44);
+        assertFalse(new DESKeySearch(wrong, pairs, 2).search().isPresent());
+    }
+
+    @Test
+    public void testKeySearchResumesFromCheckpoint(@TempDir Path dir) throws IOException {
+        // скасування після першого звіту, продовження з файлу стану - ключ знаходиться, пройдені частини не повторюються
+        long key = 0x3B3898371520F75EL;
+        int[][] subkeys = DES.generateSubkeys(key);
+        List<DESKeySearch.Pair> pairs = List.of(
+                new DESKeySearch.Pair(DEFAULT_IV, DES.encrypt(DEFAULT_IV, subkeys)));
+        Path file = dir.resolve("search.properties");
+
+        DESKeySearch first = new DESKeySearch(DESKeySearch.KeySpace.knownPrefix(key, 34), pairs, 2);
+        first.checkpointTo(file, 60_000).onProgress(p -> first.cancel(), 1);
+        OptionalLong none = first.search();
+        long testedBefore = first.progress().keysTested();
+        assertTrue(Files.exists(file), "Файл стану має бути записаний при скасуванні");
+
+        DESKeySearch resumed = DESKeySearch.resume(file, 2);
+        OptionalLong found = none.isPresent() ? none : resumed.search();
+        assertTrue(found.isPresent(), "Ключ має знайтися після продовження");
+        assertEquals(key & ~DESKeySearch.PARITY_BITS, found.getAsLong() & ~DESKeySearch.PARITY_BITS);
+        assertTrue(resumed.progress().keysTested() >= testedBefore);
+        assertTrue(resumed.progress().keysTested() <= (1L << 22) + 2 * (1L << DESKeySearch.CHUNK_BITS));
+    }
+
     @Test
     public void testEmptyInput() {
         // перевірка роботи з порожнім рядком
@@ -68,4 +538,21 @@ public class DES_OFBTest {
         String decrypted = cipher.decrypt(encrypted, DEFAULT_IV);
         assertEquals("", decrypted, "Розшифрований порожній масив має повертати порожній рядок");
     }
+
+    @Test
+    public void testHexRoundTrip() {
+        // шифротекст, збережений як hex, має розбиратися назад і розшифровуватися
+        DES_OFB cipher = new DES_OFB(DEFAULT_KEY);
+        byte[] parsed = DES_OFB.fromHex("C5745F3BA9872447f99c0adfc29b16");
+
+        assertEquals("c5745f3ba9872447f99c0adfc29b16", DES_OFB.toHex(parsed), "Кодування hex має бути оборотним");
+        assertEquals("Today is sunny.", cipher.decrypt(parsed, DEFAULT_IV), "Розібраний шифротекст має розшифровуватися");
+    }
+
+    @Test
+    public void testHexRejectsInvalidInput() {
+        // непарна довжина і не-hex символи відхиляються з IllegalArgumentException
+        assertThrows(IllegalArgumentException.class, () -> DES_OFB.fromHex("abc"), "Непарна довжина має відхилятися");
+        assertThrows(IllegalArgumentException.class, () -> DES_OFB.fromHex("zz"), "Не-hex символи мають відхилятися");
+    }
 }
\ No newline at end of file
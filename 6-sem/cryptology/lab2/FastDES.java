@@ -0,0 +1,132 @@
+/**
+ * швидка реалізація DES на машинних словах, побітово ідентична {@link DES}.
+ * <p>
+ * блок - це long, половини L і R - int, підключі - упаковані 48-бітні long з {@link DESKeySchedule}. S-блоки разом із P-перестановкою зведені у таблиці SP:
+ * раундова функція F - це 8 звертань до таблиці і OR, без жодного масиву бітів.
+ * IP та IP^(-1) виконуються кількома обмінами груп бітів (delta swap) замість 64 кроків таблиці.
+ * у циклі шифрування пам'ять не виділяється
+ */
+public final class FastDES implements BlockCipher {
+
+    //SP[64*i + v] = P(вихід S-блоку i для 6-бітного входу v, поставлений на своє місце у 32 бітах)
+    static final int[] SP = new int[8 * 64];
+
+    static {
+        for (int i = 0; i < 8; i++) {
+            for (int v = 0; v < 64; v++) {
+                int row = ((v >>> 4) & 2) | (v & 1);   //перший і останній біти
+                int col = (v >>> 1) & 0xF;            //середні 4 біти
+                int sOut = DES.S[i][row][col] << (28 - 4 * i);
+                SP[64 * i + v] = permute32(sOut, DES.P);
+            }
+        }
+    }
+
+    private final long[] encryptKeys;
+    private final long[] decryptKeys;
+
+    /**
+     * @param key 64-бітний DES-ключ (біти парності ігноруються)
+     */
+    public FastDES(long key) {
+        this(DESKeySchedule.of(key));
+    }
+
+    /** шифр на вже розгорнутому ключі (напр. з {@link DESKeySchedule#cached(long)}) */
+    public FastDES(DESKeySchedule schedule) {
+        this.encryptKeys = schedule.encryptKeys();
+        this.decryptKeys = schedule.decryptKeys();
+    }
+
+    /** шифрування одного 64-бітного блоку */
+    @Override
+    public long encrypt(long block) {
+        return crypt(block, encryptKeys);
+    }
+
+    /** розшифрування одного 64-бітного блоку */
+    @Override
+    public long decrypt(long block) {
+        return crypt(block, decryptKeys);
+    }
+
+    /** шифрує/розшифровує блок із заданою послідовністю 16 упакованих підключів */
+    static long crypt(long block, long[] keys) {
+        return finalPermutation(rounds(initialPermutation(block), keys));
+    }
+
+    /**
+     * 16 раундів Фейстеля над блоком після IP; результат - R16 || L16, готовий до IP^(-1).
+     * винесено окремо, щоб кілька проходів DES поспіль (3DES) обходились без IP^(-1)·IP між ними
+     */
+    static long rounds(long block, long[] keys) {
+        int l = (int) (block >>> 32);
+        int r = (int) block;
+        for (int i = 0; i < 16; i += 2) {
+            l ^= f(r, keys[i]);
+            r ^= f(l, keys[i + 1]);
+        }
+        return ((long) r << 32) | (l & 0xFFFFFFFFL);
+    }
+
+    //раундова функція: E-розширення береться прямо зі зсунутого R (фрагмент i - біти 4i..4i+5)
+    static int f(int r, long k) {
+        return SP[      ((Integer.rotateLeft(r, -1) >>> 26) ^ (int) (k >>> 42) & 0x3F)]
+             | SP[ 64 + ((Integer.rotateLeft(r,  3) >>> 26) ^ (int) (k >>> 36) & 0x3F)]
+             | SP[128 + ((Integer.rotateLeft(r,  7) >>> 26) ^ (int) (k >>> 30) & 0x3F)]
+             | SP[192 + ((Integer.rotateLeft(r, 11) >>> 26) ^ (int) (k >>> 24) & 0x3F)]
+             | SP[256 + ((Integer.rotateLeft(r, 15) >>> 26) ^ (int) (k >>> 18) & 0x3F)]
+             | SP[320 + ((Integer.rotateLeft(r, 19) >>> 26) ^ (int) (k >>> 12) & 0x3F)]
+             | SP[384 + ((Integer.rotateLeft(r, 23) >>> 26) ^ (int) (k >>>  6) & 0x3F)]
+             | SP[448 + ((Integer.rotateLeft(r, 27) >>> 26) ^ (int) k & 0x3F)];
+    }
+
+    // -- перестановки IP / IP^(-1) обмінами бітів
+
+    //обмін бітів x під маскою (m << s) з бітами під маскою m
+    private static long swap(long x, long m, int s) {
+        long t = ((x >>> s) ^ x) & m;
+        return x ^ t ^ (t << s);
+    }
+
+    /** IP: та сама перестановка, що й таблиця {@link DES#IP} */
+    static long initialPermutation(long x) {
+        x = swap(x, 0x000000000000FFFFL, 48);   //b7 b6 .. b1 b0 -> b1 b0 b5 b4 b3 b2 b7 b6 (байти)
+        x = swap(x, 0x00000000FF00FF00L, 24);   //-> b1 b3 b5 b7 b0 b2 b4 b6
+        x = swap(x, 0x0000F0F00000F0F0L, 12);   //обмін півбайтів
+        x = swap(x, 0x00CC00CC00CC00CCL, 6);    //обмін пар бітів
+        return swap(x, 0x0000000055555555L, 33);    //обмін сусідніх бітів між половинами
+    }
+
+    /** IP^(-1): ті самі обміни у зворотному порядку */
+    static long finalPermutation(long x) {
+        x = swap(x, 0x0000000055555555L, 33);
+        x = swap(x, 0x00CC00CC00CC00CCL, 6);
+        x = swap(x, 0x0000F0F00000F0F0L, 12);
+        x = swap(x, 0x00000000FF00FF00L, 24);
+        return swap(x, 0x000000000000FFFFL, 48);
+    }
+
+    // -- допоміжні
+
+    /**
+     * упаковує підключі з бітового представлення {@link DES#generateSubkeys(long)}
+     * у 48-бітні слова: біт 1 підключа - біт 47 long
+     */
+    static long[] packSubkeys(int[][] subkeys) {
+        long[] packed = new long[subkeys.length];
+        for (int r = 0; r < subkeys.length; r++) {
+            long k = 0;
+            for (int bit : subkeys[r]) k = (k << 1) | bit;
+            packed[r] = k;
+        }
+        return packed;
+    }
+
+    //перестановка 32-бітного слова за 1-індексованою таблицею (біт 1 - старший)
+    private static int permute32(int x, int[] table) {
+        int out = 0;
+        for (int src : table) out = (out << 1) | ((x >>> (32 - src)) & 1);
+        return out;
+    }
+}
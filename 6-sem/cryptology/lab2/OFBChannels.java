@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * адаптери NIO-каналів для DES_OFB: дані XOR-яться з keystream прямо в буферах викликача,
+ * тож файли і сокети будь-якого розміру шифруються в сталій пам'яті
+ */
+public final class OFBChannels {
+
+    private OFBChannels() {
+    }
+
+    /**
+     * канал, що повертає розшифровані (зашифровані) байти з source.
+     * read(dst) читає у dst і одразу XOR-ить прочитану частину
+     */
+    public static ReadableByteChannel reading(ReadableByteChannel source, OFBKeystream keystream) {
+        return new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                int start = dst.position();
+                int n = source.read(dst);
+                if (n > 0) {
+                    int end = dst.position();
+                    keystream.xor(dst.duplicate().position(start).limit(end));
+                }
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return source.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                source.close();
+            }
+        };
+    }
+
+    /**
+     * канал, що шифрує дані перед записом у sink.
+     * write(src) XOR-ить src на місці (після виклику буфер містить шифротекст) і записує його повністю,
+     * тому sink має бути блокуючим
+     */
+    public static WritableByteChannel writing(WritableByteChannel sink, OFBKeystream keystream) {
+        return new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                int n = src.remaining();
+                keystream.xor(src.duplicate());
+                while (src.hasRemaining()) sink.write(src);
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return sink.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                sink.close();
+            }
+        };
+    }
+
+    /**
+     * шифрування файлу в сталій пам'яті:
+     * java OFBChannels &lt;hex-ключ&gt; &lt;hex-IV&gt; &lt;вхід&gt; &lt;вихід&gt;
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: java OFBChannels <hex-key> <hex-iv> <input> <output>");
+            System.exit(1);
+        }
+        DES_OFB cipher = new DES_OFB(Long.parseUnsignedLong(args[0], 16));
+        OFBKeystream keystream = cipher.keystream(Long.parseUnsignedLong(args[1], 16));
+
+        long start = System.nanoTime();
+        try (FileChannel in = FileChannel.open(Paths.get(args[2]), StandardOpenOption.READ);
+             WritableByteChannel out = writing(FileChannel.open(Paths.get(args[3]),
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), keystream)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+            while (in.read(buf) != -1) {
+                buf.flip();
+                out.write(buf);
+                buf.clear();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%,d bytes in %.2f s (%.1f MiB/s)%n", keystream.position(), seconds,
+                keystream.position() / seconds / (1 << 20));
+    }
+}
@@ -0,0 +1,102 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * індекс контрольних точок OFB: стан регістра на початку кожного K-го блоку keystream.
+ * <p>
+ * записується під час шифрування ({@link DES_OFB#keystream(long, OFBCheckpoints)}) і зберігається
+ * поряд із шифротекстом як невеликий файл (8 байт на K блоків). щоб розшифрувати байти N..M,
+ * keystream відновлюється від найближчої контрольної точки перед N, а не від IV,
+ * тож час пропорційний довжині діапазону, а не зсуву ({@link DES_OFB#decryptRange}).
+ * <p>
+ * <b>увага:</b> регістр OFB після першого блоку - це сам keystream. індекс разом із шифротекстом
+ * розкриває відкритий текст, тому зберігати його треба так само, як ключ, а не як шифротекст
+ */
+public final class OFBCheckpoints {
+
+    private static final int MAGIC = 0x4F464258;   //"OFBX"
+
+    //найбільша к-сть точок, яку можна тримати в одному масиві
+    private static final int MAX_COUNT = Integer.MAX_VALUE - 8;
+    //скільки точок виділяється наперед при читанні (далі масив подвоюється)
+    private static final int READ_CHUNK = 1 << 12;
+
+    private final int interval;
+    private long[] registers = new long[16];
+    private int count;
+
+    /**
+     * @param interval K - відстань між контрольними точками у блоках по 8 байт
+     */
+    public OFBCheckpoints(int interval) {
+        if (interval < 1) throw new IllegalArgumentException("interval must be >= 1: " + interval);
+        this.interval = interval;
+    }
+
+    public int interval() {
+        return interval;
+    }
+
+    /** к-сть записаних контрольних точок */
+    public int size() {
+        return count;
+    }
+
+    //викликається keystream'ом для кожного блоку; записуються лише блоки 0, K, 2K, ... по порядку
+    void offer(long blockIndex, long register) {
+        if (blockIndex % interval != 0 || blockIndex / interval != count) return;
+        if (count == registers.length) registers = Arrays.copyOf(registers, 2 * count);
+        registers[count++] = register;
+    }
+
+    /**
+     * keystream, встановлений на байт position: від найближчої контрольної точки
+     * генерується не більше K - 1 блоків
+     */
+    OFBKeystream keystreamAt(BlockCipher des, long position) {
+        if (position < 0) throw new IllegalArgumentException("position must be >= 0: " + position);
+        if (count == 0) throw new IllegalStateException("no checkpoints recorded");
+        long block = position >>> 3;
+        int j = (int) Math.min(block / interval, count - 1);
+
+        long register = registers[j];
+        for (long i = (long) j * interval; i < block; i++) register = des.encrypt(register);
+        return new OFBKeystream(des, register, block, (int) (position & 7));
+    }
+
+    /** формат: "OFBX", K, к-сть точок, регістри (big-endian) */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(interval);
+        data.writeInt(count);
+        for (int i = 0; i < count; i++) data.writeLong(registers[i]);
+        data.flush();
+    }
+
+    /**
+     * @throws IOException не індекс, пошкоджений заголовок або файл коротший, ніж заявлено в заголовку
+     */
+    public static OFBCheckpoints read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) throw new IOException("not an OFB checkpoint index");
+        int interval = data.readInt();
+        if (interval < 1) throw new IOException("corrupt checkpoint interval: " + interval);
+        OFBCheckpoints index = new OFBCheckpoints(interval);
+        int count = data.readInt();
+        if (count < 0 || count > MAX_COUNT) throw new IOException("corrupt checkpoint count: " + count);
+        //заголовку не довіряємо: масив росте разом з реально прочитаними точками, тож хибна
+        //к-сть закінчується EOFException, а не виділенням гігабайтів
+        index.registers = new long[Math.max(Math.min(count, READ_CHUNK), 1)];
+        for (int i = 0; i < count; i++) {
+            if (i == index.registers.length) index.registers = Arrays.copyOf(index.registers, (int) Math.min(2L * i, count));
+            index.registers[i] = data.readLong();
+        }
+        index.count = count;
+        return index;
+    }
+}
@@ -0,0 +1,58 @@
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * потік, що шифрує/розшифровує (в OFB це одна операція) байти з вкладеного потоку на льоту.
+ * прочитані байти XOR-яться з keystream прямо в масиві викликача, пам'ять не залежить від обсягу даних
+ */
+public class OFBInputStream extends FilterInputStream {
+
+    private final OFBKeystream keystream;
+    private final byte[] one = new byte[1];   //буфер для read() по одному байту
+
+    public OFBInputStream(InputStream in, OFBKeystream keystream) {
+        super(in);
+        this.keystream = keystream;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) keystream.xor(b, off, n);
+        return n;
+    }
+
+    //пропущені байти теж мають зсунути keystream, тому вони читаються і відкидаються
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) return 0;
+        byte[] scratch = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int r = read(scratch, 0, (int) Math.min(scratch.length, n - skipped));
+            if (r == -1) break;
+            skipped += r;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+}
@@ -0,0 +1,113 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * позиція в keystream режиму OFB: поточний блок O(i) і к-сть уже використаних його байтів.
+ * <p>
+ * кожен виклик {@code xor} продовжує потік з місця, де зупинився попередній, тож дані можна
+ * подавати частинами довільного розміру - результат той самий, що й для {@link DES_OFB#process}
+ * на всьому повідомленні. XOR виконується на місці, повні блоки - по 8 байт (long) за раз.
+ * не потокобезпечний
+ */
+public final class OFBKeystream {
+
+    private final BlockCipher des;
+    private final OFBCheckpoints checkpoints;   //null - контрольні точки не записуються
+    private long block;     //поточний блок keystream O(i)
+    private int used = 8;   //скільки байтів block уже використано (8 - треба наступний)
+    private long nextBlock; //номер наступного блоку keystream
+    private long position;
+
+    OFBKeystream(BlockCipher des, long iv) {
+        this(des, iv, null);
+    }
+
+    OFBKeystream(BlockCipher des, long iv, OFBCheckpoints checkpoints) {
+        this.des = des;
+        this.block = iv;
+        this.checkpoints = checkpoints;
+    }
+
+    /**
+     * keystream з довільної позиції: register - стан регістра OFB перед блоком blockIndex
+     * (IV для 0), offset - зсув усередині цього блоку (0..7)
+     */
+    OFBKeystream(BlockCipher des, long register, long blockIndex, int offset) {
+        this(des, register, null);
+        this.nextBlock = blockIndex;
+        this.position = 8 * blockIndex;
+        if (offset > 0) {
+            next();
+            used = offset;
+            position += offset;
+        }
+    }
+
+    /** скільки байтів keystream уже використано */
+    public long position() {
+        return position;
+    }
+
+    /** XOR keystream з data[off..off+len) на місці */
+    public void xor(byte[] data, int off, int len) {
+        Blocks.checkRange(data, off, len);
+        position += len;
+        int end = off + len;
+
+        //залишок поточного блоку
+        while (used < 8 && off < end) data[off++] ^= (byte) (block >>> (56 - 8 * used++));
+
+        //повні блоки
+        for (; end - off >= 8; off += 8) {
+            next();
+            Blocks.BE_LONG.set(data, off, (long) Blocks.BE_LONG.get(data, off) ^ block);
+        }
+
+        //початок наступного блоку
+        if (off < end) {
+            next();
+            used = 0;
+            while (off < end) data[off++] ^= (byte) (block >>> (56 - 8 * used++));
+        }
+    }
+
+    /**
+     * XOR keystream з байтами буфера між position і limit на місці;
+     * position буфера зсувається до limit
+     */
+    public void xor(ByteBuffer buf) {
+        if (buf.hasArray()) {
+            int n = buf.remaining();
+            xor(buf.array(), buf.arrayOffset() + buf.position(), n);
+            buf.position(buf.position() + n);
+            return;
+        }
+
+        int p = buf.position();
+        int end = buf.limit();
+        position += end - p;
+        ByteOrder order = buf.order();
+        buf.order(ByteOrder.BIG_ENDIAN);
+
+        while (used < 8 && p < end) buf.put(p, (byte) (buf.get(p++) ^ (block >>> (56 - 8 * used++))));
+        for (; end - p >= 8; p += 8) {
+            next();
+            buf.putLong(p, buf.getLong(p) ^ block);
+        }
+        if (p < end) {
+            next();
+            used = 0;
+            while (p < end) buf.put(p, (byte) (buf.get(p++) ^ (block >>> (56 - 8 * used++))));
+        }
+
+        buf.order(order);
+        buf.position(end);
+    }
+
+    //наступний блок keystream; регістр перед ним за потреби записується як контрольна точка
+    private void next() {
+        if (checkpoints != null) checkpoints.offer(nextBlock, block);
+        nextBlock++;
+        block = des.encrypt(block);
+    }
+}
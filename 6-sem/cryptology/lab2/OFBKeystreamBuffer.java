@@ -0,0 +1,174 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * заздалегідь обчислений keystream OFB у буфері поза купою (direct ByteBuffer).
+ * <p>
+ * keystream в OFB не залежить від даних, тож його можна згенерувати до їх надходження:
+ * одним проходом ({@link #prepare}) або у фоновому потоці ({@link #prepareAsync}).
+ * тоді на шляху запиту лишається тільки XOR по 8 байт за раз, який для великих буферів
+ * ділиться між ядрами (ForkJoin). буфер перевикористовується між повідомленнями.
+ * після {@link #close} будь-яка операція кидає IllegalStateException.
+ * не потокобезпечний (окрім внутрішнього розподілу XOR)
+ */
+public final class OFBKeystreamBuffer implements AutoCloseable {
+
+    /** найбільша довжина keystream: ціла к-сть блоків має вміститись в один ByteBuffer */
+    public static final int MAX_LENGTH = Integer.MAX_VALUE & ~7;
+
+    private final BlockCipher des;
+    private ByteBuffer keystream;
+    private int length;
+    private CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+    private ExecutorService producer;
+    private volatile boolean closed;   //volatile: close() може прийти з іншого потоку, поки хтось чекає pending
+
+    OFBKeystreamBuffer(BlockCipher des, int capacity) {
+        checkPrepareLength(capacity);
+        this.des = des;
+        this.keystream = allocate(capacity);
+    }
+
+    /**
+     * обчислює перші length байтів keystream для IV (буфер за потреби збільшується)
+     *
+     * @throws IllegalArgumentException length від'ємна або більша за MAX_LENGTH
+     */
+    public void prepare(long iv, int length) {
+        checkPrepareLength(length);
+        settle();
+        fill(iv, length);
+    }
+
+    /**
+     * те саме, що {@link #prepare}, але у фоновому потоці; {@code xor} дочекається завершення.
+     * якщо заповнення не вдалось, помилку отримують повернений future і перший наступний
+     * {@code xor}/{@code length}; далі буфер порожній і готовий до нового prepare
+     */
+    public CompletableFuture<Void> prepareAsync(long iv, int length) {
+        checkPrepareLength(length);
+        settle();
+        if (producer == null) {
+            producer = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "ofb-keystream-producer");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        pending = CompletableFuture.runAsync(() -> fill(iv, length), producer);
+        return pending;
+    }
+
+    /** к-сть обчислених байтів keystream */
+    public int length() {
+        awaitReady();
+        return length;
+    }
+
+    /**
+     * XOR data[off..off+len) з першими len байтами keystream на місці
+     *
+     * @throws IllegalStateException keystream коротший за дані
+     */
+    public void xor(byte[] data, int off, int len) {
+        Blocks.checkRange(data, off, len);
+        checkLength(len);
+        Blocks.forEachSlice(len, (from, to) -> xorRange(data, off, from, to));
+    }
+
+    /** XOR байтів буфера між position і limit з keystream; position зсувається до limit */
+    public void xor(ByteBuffer buf) {
+        if (buf.hasArray()) {
+            int n = buf.remaining();
+            xor(buf.array(), buf.arrayOffset() + buf.position(), n);
+            buf.position(buf.position() + n);
+            return;
+        }
+        int len = buf.remaining();
+        checkLength(len);
+        ByteBuffer data = buf.slice().order(ByteOrder.BIG_ENDIAN);
+        Blocks.forEachSlice(len, (from, to) -> xorRange(data, from, to));
+        buf.position(buf.limit());
+    }
+
+    /**
+     * зупиняє фоновий потік (якщо він запускався); незавершений prepareAsync скасовується,
+     * тож його future і ті, хто на нього чекає, не зависають назавжди
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pending.cancel(false);
+        if (producer != null) producer.shutdownNow();
+    }
+
+    // -- внутрішнє
+
+    private void fill(long iv, int length) {
+        int blocks = (int) (((long) length + 7) >>> 3);
+        if (keystream.capacity() < 8L * blocks) keystream = allocate(8 * blocks);
+
+        long o = iv;
+        for (int i = 0; i < blocks; i++) {
+            o = des.encrypt(o);
+            keystream.putLong(8 * i, o);
+        }
+        this.length = length;
+    }
+
+    private static void checkPrepareLength(int length) {
+        if (length < 0 || length > MAX_LENGTH)
+            throw new IllegalArgumentException("length must be in [0, " + MAX_LENGTH + "]: " + length);
+    }
+
+    //дочікується фонового заповнення і забуває його: невдале лишає буфер порожнім, але не зламаним
+    private Throwable settle() {
+        if (closed) throw new IllegalStateException("keystream buffer is closed");
+        CompletableFuture<Void> done = pending;
+        pending = CompletableFuture.completedFuture(null);
+        try {
+            done.join();
+            return null;
+        } catch (CompletionException | CancellationException e) {
+            length = 0;
+            return e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    private void awaitReady() {
+        Throwable failure = settle();
+        if (failure != null)
+            throw new IllegalStateException(closed ? "keystream buffer is closed" : "keystream preparation failed", failure);
+    }
+
+    private void checkLength(int len) {
+        awaitReady();
+        if (len > length)
+            throw new IllegalStateException("keystream has " + length + " bytes, data has " + len);
+    }
+
+    //байти keystream [from, to) з відповідними байтами data, починаючи з off
+    private void xorRange(byte[] data, int off, int from, int to) {
+        int k = from;
+        for (; to - k >= 8; k += 8) {
+            Blocks.BE_LONG.set(data, off + k, (long) Blocks.BE_LONG.get(data, off + k) ^ keystream.getLong(k));
+        }
+        for (; k < to; k++) data[off + k] ^= keystream.get(k);
+    }
+
+    private void xorRange(ByteBuffer data, int from, int to) {
+        int k = from;
+        for (; to - k >= 8; k += 8) data.putLong(k, data.getLong(k) ^ keystream.getLong(k));
+        for (; k < to; k++) data.put(k, (byte) (data.get(k) ^ keystream.get(k)));
+    }
+
+    //capacity <= MAX_LENGTH, тож округлення до блоку не переповнюється
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect((capacity + 7) & ~7).order(ByteOrder.BIG_ENDIAN);
+    }
+}
@@ -0,0 +1,41 @@
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * потік, що шифрує/розшифровує байти перед записом у вкладений потік.
+ * масив викликача не змінюється: дані проходять через внутрішній буфер фіксованого розміру
+ */
+public class OFBOutputStream extends FilterOutputStream {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OFBKeystream keystream;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    public OFBOutputStream(OutputStream out, OFBKeystream keystream) {
+        super(out);
+        this.keystream = keystream;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        buffer[0] = (byte) b;
+        keystream.xor(buffer, 0, 1);
+        out.write(buffer, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off)
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + b.length);
+        while (len > 0) {
+            int n = Math.min(len, BUFFER_SIZE);
+            System.arraycopy(b, off, buffer, 0, n);
+            keystream.xor(buffer, 0, n);
+            out.write(buffer, 0, n);
+            off += n;
+            len -= n;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * 3DES у схемі EDE (NIST SP 800-67): C = E(K3, D(K2, E(K1, M))), M = D(K1, E(K2, D(K3, C))).
+ * <p>
+ * кожен із трьох ключів розгортається один раз ({@link DESKeySchedule}), і всі три проходи
+ * працюють на вже переставленому блоці: IP робиться лише на вході, а IP^(-1) лише на виході,
+ * бо IP^(-1) кінця одного проходу і IP початку наступного взаємно знищуються.
+ * 2-ключовий варіант - K3 = K1. підключається до будь-якого режиму як {@link BlockCipher}
+ */
+public final class TripleDES implements BlockCipher {
+
+    //послідовності підключів для трьох проходів шифрування і розшифрування
+    private final long[] encrypt1;
+    private final long[] encrypt2;
+    private final long[] encrypt3;
+    private final long[] decrypt1;
+    private final long[] decrypt2;
+    private final long[] decrypt3;
+
+    /** 2-ключовий 3DES (K3 = K1), 112 біт ключа */
+    public TripleDES(long k1, long k2) {
+        this(k1, k2, k1);
+    }
+
+    /** 3-ключовий 3DES, 168 біт ключа */
+    public TripleDES(long k1, long k2, long k3) {
+        this(DESKeySchedule.cached(k1), DESKeySchedule.cached(k2), DESKeySchedule.cached(k3));
+    }
+
+    public TripleDES(DESKeySchedule k1, DESKeySchedule k2, DESKeySchedule k3) {
+        //E(K1) -> D(K2) -> E(K3)
+        this.encrypt1 = k1.encryptKeys();
+        this.encrypt2 = k2.decryptKeys();
+        this.encrypt3 = k3.encryptKeys();
+        //D(K3) -> E(K2) -> D(K1)
+        this.decrypt1 = k3.decryptKeys();
+        this.decrypt2 = k2.encryptKeys();
+        this.decrypt3 = k1.decryptKeys();
+    }
+
+    @Override
+    public long encrypt(long block) {
+        long x = FastDES.initialPermutation(block);
+        x = FastDES.rounds(x, encrypt1);
+        x = FastDES.rounds(x, encrypt2);
+        x = FastDES.rounds(x, encrypt3);
+        return FastDES.finalPermutation(x);
+    }
+
+    @Override
+    public long decrypt(long block) {
+        long x = FastDES.initialPermutation(block);
+        x = FastDES.rounds(x, decrypt1);
+        x = FastDES.rounds(x, decrypt2);
+        x = FastDES.rounds(x, decrypt3);
+        return FastDES.finalPermutation(x);
+    }
+}